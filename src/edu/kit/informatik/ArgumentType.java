@@ -0,0 +1,198 @@
+package edu.kit.informatik;
+
+/**
+ * This enum describes the kinds of arguments which can be passed to a command
+ * and validates them directly on the characters of the user input.
+ *
+ * @author Bjoern Holtvogt
+ */
+public enum ArgumentType {
+
+    /**
+     * Any non-empty text without semicolon, such as names or locations.
+     */
+    TEXT {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return end > begin;
+        }
+    },
+
+    /**
+     * User name of an admin with four to eight characters.
+     */
+    USER_NAME {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return hasLength(begin, end, 4, 8);
+        }
+    },
+
+    /**
+     * Password of an admin account with eight to twelve characters.
+     */
+    PASSWORD {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return hasLength(begin, end, 8, 12);
+        }
+    },
+
+    /**
+     * Three-digit ID from 001 to 999, used for IOC codes and venues.
+     */
+    THREE_DIGIT_ID {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return isDigits(input, begin, end, 3) && !isZero(input, begin, end);
+        }
+    },
+
+    /**
+     * Athlete ID from 0001 to 9999. If extended athlete IDs are enabled, IDs with
+     * more than four digits are accepted as well, as long as they have no leading
+     * zero and fit into an integer.
+     */
+    ATHLETE_ID {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return isDigits(input, begin, end, 4) && !isZero(input, begin, end);
+        }
+
+        @Override
+        public boolean isValid(final String input, final int begin, final int end,
+                               final boolean extendedAthleteIDs) {
+            if (isValid(input, begin, end)) {
+                return true;
+            }
+            int length = end - begin;
+            return extendedAthleteIDs && length > 4 && length <= MAXIMUM_EXTENDED_ID_LENGTH
+                    && isDigits(input, begin, end, length) && input.charAt(begin) != '0';
+        }
+    },
+
+    /**
+     * Unique IOC code of three lowercase letters.
+     */
+    IOC_CODE {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            if (end - begin != 3) {
+                return false;
+            }
+            for (int i = begin; i < end; i++) {
+                char character = input.charAt(i);
+                if (character < 'a' || character > 'z') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    },
+
+    /**
+     * Four-digit year from 0001 to 9999, such as the year of determination of an
+     * IOC code.
+     */
+    DETERMINATION_YEAR {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return isDigits(input, begin, end, 4) && !isZero(input, begin, end);
+        }
+    },
+
+    /**
+     * Any four-digit year, such as the opening year of a venue.
+     */
+    YEAR {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return isDigits(input, begin, end, 4);
+        }
+    },
+
+    /**
+     * Four-digit year without leading zero, such as the year of a competition.
+     */
+    COMPETITION_YEAR {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return isDigits(input, begin, end, 4) && input.charAt(begin) != '0';
+        }
+    },
+
+    /**
+     * Any non-negative number, such as the amount of seats of a venue.
+     */
+    NUMBER {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return end > begin && isDigits(input, begin, end, end - begin);
+        }
+    },
+
+    /**
+     * Amount of medals of one kind per competition, which is either 0 or 1.
+     */
+    MEDAL {
+        @Override
+        public boolean isValid(final String input, final int begin, final int end) {
+            return end - begin == 1 && (input.charAt(begin) == '0' || input.charAt(begin) == '1');
+        }
+    };
+
+    // Nine digits always fit into an integer
+    private static final int MAXIMUM_EXTENDED_ID_LENGTH = 9;
+
+    /**
+     * Checks whether the argument between the given indices is valid.
+     *
+     * @param input Complete user input.
+     * @param begin Index of the first character of the argument.
+     * @param end   Index after the last character of the argument.
+     * @return True, if the argument is valid. False, if not.
+     */
+    public abstract boolean isValid(String input, int begin, int end);
+
+    /**
+     * Checks whether the argument between the given indices is valid, where only
+     * athlete IDs depend on whether extended athlete IDs are enabled.
+     *
+     * @param input              Complete user input.
+     * @param begin              Index of the first character of the argument.
+     * @param end                Index after the last character of the argument.
+     * @param extendedAthleteIDs True, if athlete IDs may have more than four
+     *                           digits. False, if they are limited to four digits.
+     * @return True, if the argument is valid. False, if not.
+     */
+    public boolean isValid(final String input, final int begin, final int end, final boolean extendedAthleteIDs) {
+        return isValid(input, begin, end);
+    }
+
+    private static boolean hasLength(final int begin, final int end, final int minimum, final int maximum) {
+        int length = end - begin;
+        return length >= minimum && length <= maximum;
+    }
+
+    private static boolean isDigits(final String input, final int begin, final int end, final int length) {
+        if (end - begin != length) {
+            return false;
+        }
+        for (int i = begin; i < end; i++) {
+            char character = input.charAt(i);
+            if (character < '0' || character > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZero(final String input, final int begin, final int end) {
+        for (int i = begin; i < end; i++) {
+            if (input.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
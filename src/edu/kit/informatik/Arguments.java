@@ -0,0 +1,101 @@
+package edu.kit.informatik;
+
+/**
+ * This class splits the arguments of a command at its semicolons in a single
+ * pass and gives access to them. Only the bounds of each argument are stored,
+ * so that an instance can be reused for every line without creating any
+ * intermediate objects.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class Arguments {
+
+    private static final char SEPARATOR = ';';
+    private static final int MAXIMUM_ARGUMENTS = 8;
+
+    private final int[] begins;
+    private final int[] ends;
+    private final boolean extendedAthleteIDs;
+
+    private String input;
+    private int amount;
+
+    /**
+     * Creates an empty, reusable argument container, which limits athlete IDs to
+     * four digits.
+     */
+    public Arguments() {
+        this(false);
+    }
+
+    /**
+     * Creates an empty, reusable argument container.
+     *
+     * @param extendedAthleteIDs True, if athlete IDs may have more than four
+     *                           digits. False, if they are limited to four digits.
+     */
+    public Arguments(final boolean extendedAthleteIDs) {
+        this.begins = new int[MAXIMUM_ARGUMENTS];
+        this.ends = new int[MAXIMUM_ARGUMENTS];
+        this.extendedAthleteIDs = extendedAthleteIDs;
+    }
+
+    /**
+     * Splits the user input starting at the given index into its arguments and
+     * validates each of them against the expected argument type.
+     *
+     * @param userInput Complete user input.
+     * @param begin     Index of the first character of the arguments.
+     * @param types     Expected types of the arguments in their order.
+     * @return True, if the amount and the format of the arguments are valid. False,
+     * if not.
+     */
+    public boolean parse(final String userInput, final int begin, final ArgumentType[] types) {
+        this.input = userInput;
+        this.amount = 0;
+        int argumentBegin = begin;
+        int length = userInput.length();
+        for (int i = begin; i <= length; i++) {
+            if (i == length || userInput.charAt(i) == SEPARATOR) {
+                if (amount == types.length || !types[amount].isValid(userInput, argumentBegin, i, extendedAthleteIDs)) {
+                    return false;
+                }
+                begins[amount] = argumentBegin;
+                ends[amount] = i;
+                amount++;
+                argumentBegin = i + 1;
+            }
+        }
+        return amount == types.length;
+    }
+
+    /**
+     * Returns an argument as text.
+     *
+     * @param index Position of the argument, starting at 0.
+     * @return Argument as text.
+     */
+    public String getString(final int index) {
+        return input.substring(begins[index], ends[index]);
+    }
+
+    /**
+     * Returns a numeric argument as integer without creating a text first.
+     *
+     * @param index Position of the argument, starting at 0.
+     * @return Argument as integer.
+     * @throws NumberFormatException if the argument exceeds the range of an
+     *                               integer.
+     */
+    public int getInt(final int index) {
+        int value = 0;
+        for (int i = begins[index]; i < ends[index]; i++) {
+            int digit = input.charAt(i) - '0';
+            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("argument exceeds the range of an integer.");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -1,10 +1,11 @@
 package edu.kit.informatik;
 
+import edu.kit.informatik.io.Output;
 import edu.kit.informatik.olympia.OlympicGames;
+import edu.kit.informatik.olympia.Session;
 
-import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This class implements all necessary commands for the olympic games
@@ -18,17 +19,18 @@ public enum Command {
      * Implementation of the command "add-admin" as mentioned in the task.
      */
     // add-admin <forename>;<surname>;<username>;<password>
-    CMD_ADD_ADMIN("add-admin ([^;]+);([^;]+);([^;]{4,8});([^;]{8,12})") {
+    CMD_ADD_ADMIN("add-admin", ArgumentType.TEXT, ArgumentType.TEXT, ArgumentType.USER_NAME,
+            ArgumentType.PASSWORD) {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
-
-            if (!olympicGames.isLoggedIn()) {
-                String foreName = matcher.group(1);
-                String surName = matcher.group(2);
-                String userName = matcher.group(3);
-                String passWord = matcher.group(4);
-                System.out.println(olympicGames.addAdmin(foreName, surName, userName, passWord));
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
+
+            if (!session.isLoggedIn()) {
+                String foreName = arguments.getString(0);
+                String surName = arguments.getString(1);
+                String userName = arguments.getString(2);
+                String passWord = arguments.getString(3);
+                output.println(olympicGames.addAdmin(foreName, surName, userName, passWord));
             } else {
                 throw new InvalidInputException("unexecutable, if an admin is logged in.");
             }
@@ -39,15 +41,15 @@ public enum Command {
      * Implementation of the command "login-admin" as mentioned in the task.
      */
     // login-admin <username>;<password>
-    CMD_LOGIN_ADMIN("login-admin ([^;]{4,8});([^;]{8,12})") {
+    CMD_LOGIN_ADMIN("login-admin", ArgumentType.USER_NAME, ArgumentType.PASSWORD) {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
 
-            if (!olympicGames.isLoggedIn()) {
-                String userName = matcher.group(1);
-                String passWord = matcher.group(2);
-                System.out.println(olympicGames.loginAdmin(userName, passWord));
+            if (!session.isLoggedIn()) {
+                String userName = arguments.getString(0);
+                String passWord = arguments.getString(1);
+                output.println(olympicGames.loginAdmin(session, userName, passWord));
             } else {
                 throw new InvalidInputException("unexecutable, if an admin is logged in.");
             }
@@ -60,10 +62,15 @@ public enum Command {
     // logout-admin
     CMD_LOGOUT_ADMIN("logout-admin") {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
 
-            System.out.println(olympicGames.logoutAdmin());
+            output.println(olympicGames.logoutAdmin(session));
+        }
+
+        @Override
+        protected boolean onlyReads(final OlympicGames olympicGames) {
+            return true;
         }
     },
 
@@ -71,20 +78,20 @@ public enum Command {
      * Implementation of the command "add-sports-venue" as mentioned in the task.
      */
     // add-sports-venue <id>;<country name>;<location>;<name>;<year of opening>;<amount of seats>
-    CMD_ADD_SPORTS_VENUE("add-sports-venue (00[1-9]|0[1-9]\\d|[1-9]\\d\\d);" + "([^;]+);([^;]+);([^;]+);"
-            + "(\\d\\d\\d\\d);(\\d+)") {
+    CMD_ADD_SPORTS_VENUE("add-sports-venue", ArgumentType.THREE_DIGIT_ID, ArgumentType.TEXT, ArgumentType.TEXT,
+            ArgumentType.TEXT, ArgumentType.YEAR, ArgumentType.NUMBER) {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
-
-            if (olympicGames.isLoggedIn()) {
-                String venueID = matcher.group(1);
-                String countryName = matcher.group(2);
-                String location = matcher.group(3);
-                String venueName = matcher.group(4);
-                int yearOfOpening = Integer.parseInt(matcher.group(5));
-                int amountOfSeats = Integer.parseInt(matcher.group(6));
-                System.out.println(olympicGames.addSportsVenue(venueID, countryName, location, venueName,
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
+
+            if (session.isLoggedIn()) {
+                int venueID = arguments.getInt(0);
+                String countryName = arguments.getString(1);
+                String location = arguments.getString(2);
+                String venueName = arguments.getString(3);
+                int yearOfOpening = arguments.getInt(4);
+                int amountOfSeats = arguments.getInt(5);
+                output.println(olympicGames.addSportsVenue(venueID, countryName, location, venueName,
                         yearOfOpening, amountOfSeats));
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
@@ -96,33 +103,38 @@ public enum Command {
      * Implementation of the command "list-sports-venues" as mentioned in the task.
      */
     // list-sports-venues <country name>
-    CMD_LIST_SPORTS_VENUES("list-sports-venues ([^;]+)") {
+    CMD_LIST_SPORTS_VENUES("list-sports-venues", ArgumentType.TEXT) {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
 
-            if (olympicGames.isLoggedIn()) {
-                String countryName = matcher.group(1);
-                olympicGames.listSportsVenues(countryName);
+            if (session.isLoggedIn()) {
+                String countryName = arguments.getString(0);
+                olympicGames.listSportsVenues(countryName, output);
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
             }
         }
+
+        @Override
+        protected boolean onlyReads(final OlympicGames olympicGames) {
+            return true;
+        }
     },
 
     /**
      * Implementation of the command "add-olympic-sport" as mentioned in the task.
      */
     // add-olympic-sport <kind of sport>;<sport discipline>
-    CMD_ADD_OLYMPIC_SPORT("add-olympic-sport ([^;]+);([^;]+)") {
+    CMD_ADD_OLYMPIC_SPORT("add-olympic-sport", ArgumentType.TEXT, ArgumentType.TEXT) {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
 
-            if (olympicGames.isLoggedIn()) {
-                String sport = matcher.group(1);
-                String discipline = matcher.group(2);
-                System.out.println(olympicGames.addOlympicSport(sport, discipline));
+            if (session.isLoggedIn()) {
+                String sport = arguments.getString(0);
+                String discipline = arguments.getString(1);
+                output.println(olympicGames.addOlympicSport(sport, discipline));
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
             }
@@ -135,33 +147,38 @@ public enum Command {
     // list-olympic-sports
     CMD_LIST_OLYMPIC_SPORTS("list-olympic-sports") {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
 
-            if (olympicGames.isLoggedIn()) {
-                olympicGames.listOlympicSports();
+            if (session.isLoggedIn()) {
+                olympicGames.listOlympicSports(output);
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
             }
         }
+
+        @Override
+        protected boolean onlyReads(final OlympicGames olympicGames) {
+            return true;
+        }
     },
 
     /**
      * Implementation of the command "add-ioc-code" as mentioned in the task.
      */
     // add-ioc-code <ioc-id>;<ioc-code>;<country name>;<year of determination>
-    CMD_ADD_IOC_CODE("add-ioc-code (00[1-9]|0[1-9]\\d|[1-9]\\d\\d);([a-z]{3});([^;]+);"
-            + "(000[1-9]|00[1-9]\\d|0[1-9]\\d\\d|[1-9]\\d\\d\\d)") {
+    CMD_ADD_IOC_CODE("add-ioc-code", ArgumentType.THREE_DIGIT_ID, ArgumentType.IOC_CODE, ArgumentType.TEXT,
+            ArgumentType.DETERMINATION_YEAR) {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
-
-            if (olympicGames.isLoggedIn()) {
-                String iocID = matcher.group(1);
-                String iocCode = matcher.group(2);
-                String countryName = matcher.group(3);
-                String yearOfDetermination = matcher.group(4);
-                System.out.println(olympicGames.addIocCode(iocID, iocCode, countryName, yearOfDetermination));
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
+
+            if (session.isLoggedIn()) {
+                int iocID = arguments.getInt(0);
+                String iocCode = arguments.getString(1);
+                String countryName = arguments.getString(2);
+                int yearOfDetermination = arguments.getInt(3);
+                output.println(olympicGames.addIocCode(iocID, iocCode, countryName, yearOfDetermination));
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
             }
@@ -174,15 +191,20 @@ public enum Command {
     // list-ioc-codes
     CMD_LIST_IOC_CODES("list-ioc-codes") {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
 
-            if (olympicGames.isLoggedIn()) {
-                olympicGames.listIocCodes();
+            if (session.isLoggedIn()) {
+                olympicGames.listIocCodes(output);
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
             }
         }
+
+        @Override
+        protected boolean onlyReads(final OlympicGames olympicGames) {
+            return true;
+        }
     },
 
     /**
@@ -190,20 +212,20 @@ public enum Command {
      */
     // add-athlete <id>;<forename>;<surname>;<country of origin>;<kind of
     // sport>;<sport discipline>
-    CMD_ADD_ATHLETE("add-athlete (000[1-9]|00[1-9]\\d|0[1-9]\\d\\d|[1-9]\\d\\d\\d);"
-            + "([^;]+);([^;]+);([^;]+);([^;]+);([^;]+)") {
+    CMD_ADD_ATHLETE("add-athlete", ArgumentType.ATHLETE_ID, ArgumentType.TEXT, ArgumentType.TEXT, ArgumentType.TEXT,
+            ArgumentType.TEXT, ArgumentType.TEXT) {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
-
-            if (olympicGames.isLoggedIn()) {
-                String athleteID = matcher.group(1);
-                String foreName = matcher.group(2);
-                String surName = matcher.group(3);
-                String countryOfOrigin = matcher.group(4);
-                String sport = matcher.group(5);
-                String discipline = matcher.group(6);
-                System.out.println(olympicGames.addAthlete(athleteID, foreName, surName, countryOfOrigin, sport,
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
+
+            if (session.isLoggedIn()) {
+                int athleteID = arguments.getInt(0);
+                String foreName = arguments.getString(1);
+                String surName = arguments.getString(2);
+                String countryOfOrigin = arguments.getString(3);
+                String sport = arguments.getString(4);
+                String discipline = arguments.getString(5);
+                output.println(olympicGames.addAthlete(athleteID, foreName, surName, countryOfOrigin, sport,
                         discipline));
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
@@ -215,19 +237,25 @@ public enum Command {
      * Implementation of the command "summary-athletes" as mentioned in the task.
      */
     // summary-athletes <kind of sport>;<sport discipline>
-    CMD_SUMMARY_ATHLETES("summary-athletes ([^;]+);([^;]+)") {
+    CMD_SUMMARY_ATHLETES("summary-athletes", ArgumentType.TEXT, ArgumentType.TEXT) {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
 
-            if (olympicGames.isLoggedIn()) {
-                String sport = matcher.group(1);
-                String discipline = matcher.group(2);
-                olympicGames.summaryAthlete(sport, discipline);
+            if (session.isLoggedIn()) {
+                String sport = arguments.getString(0);
+                String discipline = arguments.getString(1);
+                olympicGames.summaryAthlete(sport, discipline, output);
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
             }
         }
+
+        @Override
+        protected boolean onlyReads(final OlympicGames olympicGames) {
+            // Athletes of a snapshot are restored on their first summary
+            return !olympicGames.restoresLazily();
+        }
     },
 
     /**
@@ -235,27 +263,34 @@ public enum Command {
      */
     // add-competition <id>;<year>;<country name>;<kind of sport>;<sport
     // discipline>;<gold>;<silver>;<bronze>
-    CMD_ADD_COMPETITION("add-competition (000[1-9]|00[1-9]\\d|0[1-9]\\d\\d|[1-9]\\d\\d\\d);"
-            + "([1-9]\\d\\d\\d);([^;]+);([^;]+);([^;]+);(0|1);(0|1);(0|1)") {
+    CMD_ADD_COMPETITION("add-competition", ArgumentType.ATHLETE_ID, ArgumentType.COMPETITION_YEAR,
+            ArgumentType.TEXT, ArgumentType.TEXT, ArgumentType.TEXT, ArgumentType.MEDAL, ArgumentType.MEDAL,
+            ArgumentType.MEDAL) {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
-
-            if (olympicGames.isLoggedIn()) {
-                String athleteID = matcher.group(1);
-                int participationYear = Integer.parseInt(matcher.group(2));
-                String countryName = matcher.group(3);
-                String sport = matcher.group(4);
-                String discipline = matcher.group(5);
-                int gold = Integer.parseInt(matcher.group(6));
-                int silver = Integer.parseInt(matcher.group(7));
-                int bronze = Integer.parseInt(matcher.group(8));
-                System.out.println(olympicGames.addCompetition(athleteID, participationYear, countryName, sport,
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
+
+            if (session.isLoggedIn()) {
+                int athleteID = arguments.getInt(0);
+                int participationYear = arguments.getInt(1);
+                String countryName = arguments.getString(2);
+                String sport = arguments.getString(3);
+                String discipline = arguments.getString(4);
+                int gold = arguments.getInt(5);
+                int silver = arguments.getInt(6);
+                int bronze = arguments.getInt(7);
+                output.println(olympicGames.addCompetition(athleteID, participationYear, countryName, sport,
                         discipline, gold, silver, bronze));
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
             }
         }
+
+        @Override
+        protected boolean changesConcurrently(final OlympicGames olympicGames) {
+            // Athletes of a snapshot are restored on their first competition
+            return !olympicGames.restoresLazily();
+        }
     },
 
     /**
@@ -264,15 +299,20 @@ public enum Command {
     // olympic-medal-table
     CMD_OLYMPIC_MEDAL_TABLE("olympic-medal-table") {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
 
-            if (olympicGames.isLoggedIn()) {
-                olympicGames.olympicMedalTable();
+            if (session.isLoggedIn()) {
+                olympicGames.olympicMedalTable(output);
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
             }
         }
+
+        @Override
+        protected boolean onlyReads(final OlympicGames olympicGames) {
+            return true;
+        }
     },
 
     /**
@@ -281,11 +321,29 @@ public enum Command {
     // reset
     CMD_RESET("reset") {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames)
-                throws InvalidInputException {
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
 
-            if (olympicGames.isLoggedIn()) {
-                System.out.println(olympicGames.reset());
+            if (session.isLoggedIn()) {
+                output.println(olympicGames.reset());
+            } else {
+                throw new InvalidInputException("unexecutable, if no admin is logged in.");
+            }
+        }
+    },
+
+    /**
+     * Implementation of the command "checkpoint", which writes the whole state to
+     * the snapshot file.
+     */
+    // checkpoint
+    CMD_CHECKPOINT("checkpoint") {
+        @Override
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) throws InvalidInputException {
+
+            if (session.isLoggedIn()) {
+                output.println(olympicGames.checkpoint());
             } else {
                 throw new InvalidInputException("unexecutable, if no admin is logged in.");
             }
@@ -298,63 +356,214 @@ public enum Command {
     // quit
     CMD_QUIT("quit") {
         @Override
-        public void commandMethod(final MatchResult matcher, final OlympicGames olympicGames) {
-            running = false;
+        public void commandMethod(final Arguments arguments, final OlympicGames olympicGames,
+                                  final Session session, final Output output) {
+            session.quit();
+        }
+
+        @Override
+        protected boolean onlyReads(final OlympicGames olympicGames) {
+            return true;
         }
     };
 
-    private static boolean running = true;
-    private final Pattern pattern;
+    private static final char KEYWORD_SEPARATOR = ' ';
+    private static final Map<String, Command> DISPATCH_TABLE = new HashMap<>();
+
+    static {
+        for (Command command : Command.values()) {
+            DISPATCH_TABLE.put(command.keyword, command);
+        }
+    }
+
+    private final String keyword;
+    private final ArgumentType[] argumentTypes;
 
     /**
      * Creates a command.
      *
-     * @param regex Regular expression for the command.
+     * @param keyword       Keyword which introduces the command.
+     * @param argumentTypes Expected types of the arguments of the command in their
+     *                      order. Empty, if the command doesn't take any arguments.
      */
-    Command(final String regex) {
-        this.pattern = Pattern.compile(regex);
+    Command(final String keyword, final ArgumentType... argumentTypes) {
+        this.keyword = keyword;
+        this.argumentTypes = argumentTypes;
     }
 
     /**
-     * Returns the command which matches to the user input.
+     * Returns the command which matches to the user input. The command is looked
+     * up by its keyword, so only the arguments of a single command have to be
+     * validated.
      *
      * @param userInput    Command and/or arguments for it, based on the command
      *                     itself.
+     * @param arguments    Container which receives the validated arguments.
      * @param olympicGames Reference to Olympic Games control.
+     * @param session      Session from which the user input originates.
+     * @param output       Sink for the responses of the command.
      * @return The matching command.
      * @throws InvalidInputException if any user input doesn't match with the
      *                               command pattern.
      */
-    public static Command matchingCommand(final String userInput, final OlympicGames olympicGames)
-            throws InvalidInputException {
-
-        for (Command commands : Command.values()) {
-            Matcher matcher = commands.pattern.matcher(userInput);
-            if (matcher.matches()) {
-                commands.commandMethod(matcher, olympicGames);
-                return commands;
-            }
+    public static Command matchingCommand(final String userInput, final Arguments arguments,
+                                          final OlympicGames olympicGames, final Session session,
+                                          final Output output) throws InvalidInputException {
+        return matchingCommand(parse(userInput, arguments), arguments, olympicGames, session, output);
+    }
+
+    /**
+     * Executes a command whose arguments have already been validated by
+     * {@link #parse}.
+     *
+     * @param command      Parsed command or null, if the user input didn't match
+     *                     any command.
+     * @param arguments    Validated arguments of the command.
+     * @param olympicGames Reference to Olympic Games control.
+     * @param session      Session from which the user input originates.
+     * @param output       Sink for the responses of the command.
+     * @return The executed command.
+     * @throws InvalidInputException if the user input didn't match any command
+     *                               or any of its arguments is invalid.
+     */
+    public static Command matchingCommand(final Command command, final Arguments arguments,
+                                          final OlympicGames olympicGames, final Session session,
+                                          final Output output) throws InvalidInputException {
+        if (command == null) {
+            throw new InvalidInputException("invalid command.");
         }
-        throw new InvalidInputException("invalid command.");
+        command.commandMethod(arguments, olympicGames, session, output);
+        return command;
+    }
+
+    /**
+     * Looks up the command of the user input and validates its arguments without
+     * executing it, so that the user input can be parsed ahead of its execution.
+     *
+     * @param userInput Command and/or arguments for it, based on the command
+     *                  itself.
+     * @param arguments Container which receives the validated arguments.
+     * @return The matching command or null, if the user input doesn't match any
+     * command pattern.
+     */
+    public static Command parse(final String userInput, final Arguments arguments) {
+        int separator = userInput.indexOf(KEYWORD_SEPARATOR);
+        String keyword = (separator < 0) ? userInput : userInput.substring(0, separator);
+        Command command = DISPATCH_TABLE.get(keyword);
+        if (command != null && command.matchArguments(userInput, separator, arguments)) {
+            return command;
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the command of the user input only reads the published read
+     * view of the Olympic Games, so that it may be executed concurrently with any
+     * other command. Unknown commands don't touch the state at all.
+     *
+     * @param userInput    Command and/or arguments for it, based on the command
+     *                     itself.
+     * @param olympicGames Reference to Olympic Games control.
+     * @return True, if the command only reads the read view. False, if it may
+     * read or change the live state.
+     */
+    public static boolean isReadOnly(final String userInput, final OlympicGames olympicGames) {
+        return isReadOnly(lookup(userInput), olympicGames);
+    }
+
+    /**
+     * Returns whether a command which has already been parsed by {@link #parse}
+     * only reads the published read view of the Olympic Games, so that it may be
+     * executed concurrently with any other command. Invalid user input doesn't
+     * touch the state at all.
+     *
+     * @param command      Parsed command or null, if the user input didn't match
+     *                     any command.
+     * @param olympicGames Reference to Olympic Games control.
+     * @return True, if the command only reads the read view. False, if it may
+     * read or change the live state.
+     */
+    public static boolean isReadOnly(final Command command, final OlympicGames olympicGames) {
+        return command == null || command.onlyReads(olympicGames);
+    }
+
+    /**
+     * Returns whether the command of the user input changes the Olympic Games in
+     * a way which may run concurrently with the same command, though not with any
+     * other mutation.
+     *
+     * @param userInput    Command and/or arguments for it, based on the command
+     *                     itself.
+     * @param olympicGames Reference to Olympic Games control.
+     * @return True, if the command may run concurrently with itself. False, if it
+     * has to run exclusively or only reads the read view.
+     */
+    public static boolean isConcurrent(final String userInput, final OlympicGames olympicGames) {
+        Command command = lookup(userInput);
+        return command != null && command.changesConcurrently(olympicGames);
+    }
+
+    private static Command lookup(final String userInput) {
+        int separator = userInput.indexOf(KEYWORD_SEPARATOR);
+        return DISPATCH_TABLE.get((separator < 0) ? userInput : userInput.substring(0, separator));
+    }
+
+    /**
+     * Validates the arguments of the command, which are given without the keyword
+     * of the command in front of them.
+     *
+     * @param input     Arguments of the command, separated by semicolons.
+     * @param arguments Container which receives the validated arguments.
+     * @return True, if the amount and the format of the arguments are valid. False,
+     * if not.
+     */
+    public boolean parseArguments(final String input, final Arguments arguments) {
+        return arguments.parse(input, 0, argumentTypes);
+    }
+
+    private boolean matchArguments(final String userInput, final int separator, final Arguments arguments) {
+        // Commands without arguments must not be followed by a separator
+        if (argumentTypes.length == 0) {
+            return separator < 0;
+        }
+        return separator >= 0 && arguments.parse(userInput, separator + 1, argumentTypes);
     }
 
     /**
      * Command dependent execution method.
      *
-     * @param matcher      Successfully compiled command pattern which contains the
-     *                     user input for the command dependent methods.
+     * @param arguments    Successfully validated arguments of the user input for
+     *                     the command dependent methods.
      * @param olympicGames Reference to Olympic Games control.
+     * @param session      Session from which the user input originates.
+     * @param output       Sink for the responses of the command.
      * @throws InvalidInputException if any user input was invalid.
      */
-    protected abstract void commandMethod(MatchResult matcher, OlympicGames olympicGames) throws InvalidInputException;
+    protected abstract void commandMethod(Arguments arguments, OlympicGames olympicGames, Session session,
+                                          Output output) throws InvalidInputException;
 
     /**
-     * Returns the current program state.
+     * Returns whether the command only reads the published read view of the
+     * Olympic Games. The session of the command may still be changed, since it
+     * isn't shared.
      *
-     * @return True, if the game is still on and hasn't been quit yet. False, if the
-     * user wants to quit the game by the command quit.
+     * @param olympicGames Reference to Olympic Games control.
+     * @return True, if the command only reads the read view. False, if it may
+     * read or change the live state.
+     */
+    protected boolean onlyReads(final OlympicGames olympicGames) {
+        return false;
+    }
+
+    /**
+     * Returns whether the command changes the Olympic Games in a way which may run
+     * concurrently with other executions of the same command.
+     *
+     * @param olympicGames Reference to Olympic Games control.
+     * @return True, if the command may run concurrently with itself. False, if it
+     * has to run exclusively.
      */
-    public boolean isRunning() {
-        return running;
+    protected boolean changesConcurrently(final OlympicGames olympicGames) {
+        return false;
     }
 }
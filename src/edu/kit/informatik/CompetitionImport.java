@@ -0,0 +1,231 @@
+package edu.kit.informatik;
+
+import edu.kit.informatik.io.Output;
+import edu.kit.informatik.olympia.OlympicGames;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class imports a large batch of competitions at once, such as the results
+ * of a whole Olympic Games. Every row holds the arguments of the command
+ * add-competition and gets the response that command would give it. The import
+ * is run by the operator outside of any session, so unlike the command it
+ * doesn't need an admin to be logged in.
+ * <p>
+ * The rows are validated in parallel, then grouped by their athlete with a
+ * parallel sort, and the groups are added in parallel on the fork-join pool.
+ * Only competitions of the same athlete depend on each other, so the rows of a
+ * group are added in the order of the batch, while different groups don't wait
+ * for each other. As long as athletes of a snapshot are still waiting to be
+ * restored, the groups are added one after another instead. So are the groups
+ * of Olympic Games which confine their mutations to threads of their own, since
+ * those threads already apply them in parallel and would only keep the workers
+ * of the pool waiting.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class CompetitionImport {
+
+    private static final int ROWS_PER_TASK = 1 << 10;
+    private static final int ID_SHIFT = 32;
+    private static final long ROW_MASK = 0xFFFFFFFFL;
+    // Sorted behind every valid row, since no athlete ID is that large
+    private static final long INVALID_ROW = Long.MAX_VALUE;
+    private static final String INVALID_ROW_RESPONSE = "Error, invalid command.";
+
+    private final OlympicGames olympicGames;
+    private final List<String> rows;
+    private final boolean extendedAthleteIDs;
+    private final String[] responses;
+    // Athlete ID and index of every row, packed so that sorting them groups the rows
+    private final long[] keys;
+
+    /**
+     * Creates an import of a batch of competitions.
+     *
+     * @param olympicGames       Reference to Olympic Games control.
+     * @param rows               Rows of the batch, each with the arguments of the
+     *                           command add-competition.
+     * @param extendedAthleteIDs True, if athlete IDs may have more than four
+     *                           digits. False, if they are limited to four digits.
+     */
+    public CompetitionImport(final OlympicGames olympicGames, final List<String> rows,
+                             final boolean extendedAthleteIDs) {
+        this.olympicGames = olympicGames;
+        this.rows = rows;
+        this.extendedAthleteIDs = extendedAthleteIDs;
+        this.responses = new String[rows.size()];
+        this.keys = new long[rows.size()];
+    }
+
+    /**
+     * Adds the competitions of all rows. Every row is answered just as if the
+     * rows had been added by the command add-competition one after another, by
+     * a logged in admin.
+     */
+    public void run() {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        pool.invoke(new Validation(0, rows.size()));
+        Arrays.parallelSort(keys);
+        int valid = rows.size();
+        while (valid > 0 && keys[valid - 1] == INVALID_ROW) {
+            valid--;
+        }
+        if (addsInParallel()) {
+            pool.invoke(new Application(0, valid));
+        } else {
+            addAll(0, valid);
+        }
+    }
+
+    /**
+     * Returns whether the groups of athletes are added in parallel, which is only
+     * safe while no athlete of a snapshot is waiting to be restored.
+     *
+     * @return True, if the groups are added in parallel. False, if they are added
+     * one after another.
+     */
+    boolean addsInParallel() {
+        // The latest read view may have been published before the snapshot was opened
+        return !olympicGames.hasPendingSnapshotAthletes() && !olympicGames.confinesMutations();
+    }
+
+    /**
+     * Writes the responses of all rows in the order of the batch.
+     *
+     * @param output Sink for the responses.
+     */
+    public void writeResponses(final Output output) {
+        for (String response : responses) {
+            output.println(response);
+        }
+    }
+
+    /**
+     * Returns the amount of rows which have been answered with an error.
+     *
+     * @return Amount of erroneous rows.
+     */
+    public long getErrors() {
+        long errors = 0;
+        for (String response : responses) {
+            if (response.startsWith("Error, ")) {
+                errors++;
+            }
+        }
+        return errors;
+    }
+
+    private void validate(final int row, final Arguments arguments) {
+        if (Command.CMD_ADD_COMPETITION.parseArguments(rows.get(row), arguments)) {
+            keys[row] = ((long) arguments.getInt(0) << ID_SHIFT) | row;
+        } else {
+            keys[row] = INVALID_ROW;
+            responses[row] = INVALID_ROW_RESPONSE;
+        }
+    }
+
+    private void addAll(final int from, final int to) {
+        Arguments arguments = new Arguments(extendedAthleteIDs);
+        for (int i = from; i < to; i++) {
+            add((int) (keys[i] & ROW_MASK), arguments);
+        }
+    }
+
+    private void add(final int row, final Arguments arguments) {
+        // The row has already been validated, so it is only parsed again to take its arguments
+        Command.CMD_ADD_COMPETITION.parseArguments(rows.get(row), arguments);
+        try {
+            responses[row] = olympicGames.addCompetition(arguments.getInt(0), arguments.getInt(1),
+                    arguments.getString(2), arguments.getString(3), arguments.getString(4), arguments.getInt(5),
+                    arguments.getInt(6), arguments.getInt(7));
+        } catch (InvalidInputException invalidInputException) {
+            responses[row] = "Error, " + invalidInputException.getMessage();
+        } catch (NumberFormatException numberFormatException) {
+            responses[row] = "Error, input isn't equal to an integer.";
+        }
+    }
+
+    private static int athleteID(final long key) {
+        return (int) (key >>> ID_SHIFT);
+    }
+
+    /**
+     * This class validates a range of rows and takes their athlete IDs, splitting
+     * the range while it is large.
+     */
+    private final class Validation extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        /**
+         * Creates the validation of a range of rows.
+         *
+         * @param from Index of the first row.
+         * @param to   Index behind the last row.
+         */
+        Validation(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Validation(from, middle), new Validation(middle, to));
+                return;
+            }
+            Arguments arguments = new Arguments(extendedAthleteIDs);
+            for (int row = from; row < to; row++) {
+                validate(row, arguments);
+            }
+        }
+    }
+
+    /**
+     * This class adds the competitions of a range of sorted keys, splitting the
+     * range while it is large. A range is only split between two athletes, so
+     * that the competitions of an athlete are added by a single task in their
+     * order.
+     */
+    private final class Application extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        /**
+         * Creates the application of a range of sorted keys.
+         *
+         * @param from Index of the first key.
+         * @param to   Index behind the last key.
+         */
+        Application(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > ROWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                while (middle < to && athleteID(keys[middle]) == athleteID(keys[middle - 1])) {
+                    middle++;
+                }
+                if (middle < to) {
+                    invokeAll(new Application(from, middle), new Application(middle, to));
+                    return;
+                }
+            }
+            addAll(from, to);
+        }
+    }
+}
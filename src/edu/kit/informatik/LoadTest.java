@@ -0,0 +1,147 @@
+package edu.kit.informatik;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The load test opens many idle connections to a running server, like a crowd
+ * of dashboards, and measures the latency of the commands of a few busy clients
+ * at the same time. Every idle connection is checked with a single round trip,
+ * so that only connections which are actually served are counted.
+ * <p>
+ * Each measured command is "logout-admin" without a logged in admin, which
+ * passes the whole command flow of the server and answers with a single line.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class LoadTest {
+
+    private static final byte[] REQUEST = ("logout-admin" + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+    private static final long NANOS_PER_MICRO = 1_000L;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final double MEDIAN = 0.5;
+    private static final double HIGH_PERCENTILE = 0.99;
+
+    /**
+     * Private constructor to avoid object generation.
+     *
+     * @deprecated Utility-class constructor.
+     */
+    @Deprecated
+    private LoadTest() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Runs the load test against a server on the loopback address.
+     *
+     * @param args Port of the server, amount of idle connections, amount of busy
+     *             clients and amount of commands of every busy client.
+     * @throws IOException          if a connection fails.
+     * @throws InterruptedException if the load test is interrupted.
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        if (args.length != 4) {
+            System.err.println("Usage: LoadTest <port> <idle connections> <busy clients> <commands per client>");
+            return;
+        }
+        int port = Integer.parseInt(args[0]);
+        int idleConnections = Integer.parseInt(args[1]);
+        int busyClients = Integer.parseInt(args[2]);
+        int commands = Integer.parseInt(args[3]);
+
+        long start = System.nanoTime();
+        List<Socket> idleSockets = new ArrayList<>(idleConnections);
+        try {
+            for (int i = 0; i < idleConnections; i++) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                idleSockets.add(socket);
+                roundTrip(socket.getOutputStream(), new BufferedReader(new InputStreamReader(
+                        socket.getInputStream(), StandardCharsets.UTF_8)));
+            }
+            long connected = System.nanoTime();
+            System.out.println("Idle connections: " + idleSockets.size() + " in "
+                    + (connected - start) / NANOS_PER_MILLI + " ms.");
+
+            long[][] latencies = new long[busyClients][];
+            Thread[] clients = new Thread[busyClients];
+            for (int i = 0; i < busyClients; i++) {
+                int client = i;
+                clients[i] = new Thread(() -> latencies[client] = measure(port, commands));
+                clients[i].start();
+            }
+            for (Thread client : clients) {
+                client.join();
+            }
+            long finished = System.nanoTime();
+            report(latencies, finished - connected, idleSockets.size() + answered(latencies));
+        } finally {
+            for (Socket socket : idleSockets) {
+                socket.close();
+            }
+        }
+    }
+
+    private static long[] measure(final int port, final int commands) {
+        long[] latencies = new long[commands];
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            OutputStream output = socket.getOutputStream();
+            BufferedReader input = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            for (int i = 0; i < commands; i++) {
+                long sent = System.nanoTime();
+                roundTrip(output, input);
+                latencies[i] = System.nanoTime() - sent;
+            }
+        } catch (IOException ioException) {
+            System.err.println("Error, client failed: " + ioException.getMessage());
+            // A failed client isn't counted as an open connection
+            return null;
+        }
+        return latencies;
+    }
+
+    private static void roundTrip(final OutputStream output, final BufferedReader input) throws IOException {
+        output.write(REQUEST);
+        output.flush();
+        if (input.readLine() == null) {
+            throw new IOException("connection closed by the server.");
+        }
+    }
+
+    private static int answered(final long[][] latencies) {
+        int answered = 0;
+        for (long[] clientLatencies : latencies) {
+            if (clientLatencies != null) {
+                answered++;
+            }
+        }
+        return answered;
+    }
+
+    private static void report(final long[][] latencies, final long elapsed, final int connections) {
+        long[] all = Arrays.stream(latencies).filter(Objects::nonNull).flatMapToLong(Arrays::stream).sorted()
+                .toArray();
+        if (all.length == 0) {
+            System.out.println("No command has been answered.");
+            return;
+        }
+        System.out.println("Open connections: " + connections + ".");
+        System.out.println("Commands: " + all.length + " in " + elapsed / NANOS_PER_MILLI + " ms, "
+                + all.length * NANOS_PER_SECOND / Math.max(1, elapsed) + " per second.");
+        System.out.println("Latency: median " + all[(int) (all.length * MEDIAN)] / NANOS_PER_MICRO
+                + " us, 99th percentile " + all[(int) (all.length * HIGH_PERCENTILE)] / NANOS_PER_MICRO
+                + " us, maximum " + all[all.length - 1] / NANOS_PER_MICRO + " us.");
+    }
+}
@@ -1,10 +1,23 @@
 package edu.kit.informatik;
 
+import edu.kit.informatik.io.BufferedOutput;
+import edu.kit.informatik.io.MappedLineReader;
+import edu.kit.informatik.io.NullOutput;
+import edu.kit.informatik.io.Output;
+import edu.kit.informatik.olympia.CompetitionStore;
+import edu.kit.informatik.olympia.FsyncPolicy;
 import edu.kit.informatik.olympia.OlympicGames;
+import edu.kit.informatik.olympia.Session;
+import edu.kit.informatik.olympia.ShardedOlympicGames;
+import edu.kit.informatik.olympia.WriteAheadLog;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * The main class is the entry point of the olympic games administration and
@@ -14,6 +27,26 @@ import java.io.InputStreamReader;
  */
 public final class Main {
 
+    private static final String BATCH_OPTION = "--batch";
+    private static final String DISCARD_OUTPUT_OPTION = "--discard-output";
+    private static final String EXTENDED_ATHLETE_IDS_OPTION = "--extended-athlete-ids";
+    private static final String WAL_OPTION = "--wal";
+    private static final String FSYNC_OPTION = "--fsync";
+    private static final String SNAPSHOT_OPTION = "--snapshot";
+    private static final String LAZY_SNAPSHOT_OPTION = "--lazy-snapshot";
+    private static final String COMPETITION_STORE_OPTION = "--competition-store";
+    private static final String ARCHIVE_OPTION = "--archive";
+    private static final String SERVE_OPTION = "--serve";
+    private static final String MAX_CONNECTIONS_OPTION = "--max-connections";
+    private static final String SHARDS_OPTION = "--shards";
+    private static final String PIPELINE_OPTION = "--pipeline";
+    private static final String IMPORT_OPTION = "--import";
+    private static final int DEFAULT_MAX_CONNECTIONS = 16384;
+    // Measured with the load test, at about half a gigabyte for the stacks of the connections
+    private static final int DEFAULT_PLATFORM_MAX_CONNECTIONS = 4096;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final int MAX_PORT = 65535;
+
     /**
      * Reads text from the "standard" input stream, buffering characters so as to
      * provide for the efficient reading of characters, arrays, and lines. This
@@ -33,23 +66,378 @@ public final class Main {
     }
 
     /**
-     * This is the program entry method main.
+     * This is the program entry method main. Without arguments, the commands are
+     * read interactively from the "standard" input stream. Each option is
+     * described in the README.
+     * <p>
+     * With the option {@value #BATCH_OPTION} followed by the path of a script,
+     * the commands of the script are executed non-interactively. The option
+     * {@value #PIPELINE_OPTION} reads and parses the input, applies it and writes
+     * the responses on three overlapping threads. The option
+     * {@value #DISCARD_OUTPUT_OPTION} drops all responses, which is meant for
+     * benchmarks, and {@value #EXTENDED_ATHLETE_IDS_OPTION} lifts the limit of
+     * four digits for athlete IDs.
+     * <p>
+     * With the option {@value #WAL_OPTION} followed by the path of a log file,
+     * every successful mutation is logged and the log is replayed on startup. The
+     * option {@value #FSYNC_OPTION} followed by always, batch or never selects when
+     * the log is forced to the storage device, which is batch by default.
+     * <p>
+     * With the option {@value #SNAPSHOT_OPTION} followed by the path of a snapshot
+     * file, the state is restored from the snapshot on startup and written to it
+     * by the command checkpoint. The option {@value #LAZY_SNAPSHOT_OPTION}
+     * restores the athletes of the snapshot only when they are needed. With the
+     * option {@value #COMPETITION_STORE_OPTION} followed by the path of a
+     * directory, every accepted competition is stored in a columnar store in that
+     * directory. With the option {@value #ARCHIVE_OPTION} followed by the path of
+     * an archive file, every checkpoint also writes a compressed archive, which
+     * needs the competition store.
+     * <p>
+     * With the option {@value #SERVE_OPTION} followed by a port, the commands of
+     * many clients are served over that port of the loopback address instead. The
+     * option {@value #MAX_CONNECTIONS_OPTION} followed by a number limits the
+     * amount of concurrent connections, which is {@value #DEFAULT_MAX_CONNECTIONS}
+     * by default, or {@value #DEFAULT_PLATFORM_MAX_CONNECTIONS} on runtimes without
+     * virtual threads.
+     * <p>
+     * With the option {@value #SHARDS_OPTION} followed by a number, the athletes
+     * and competitions are partitioned by country over that many shards, which
+     * can't be combined with any option of the persistence. With the option
+     * {@value #IMPORT_OPTION} followed by the path of a file, whose lines hold the
+     * arguments of the command add-competition, all of these competitions are
+     * imported in parallel before any command is executed.
      *
      * @param args Array of strings of the given command line arguments.
      */
     public static void main(final String[] args) {
-        OlympicGames olympicGames = new OlympicGames();
-        Command command = null;
+        Path script = null;
+        Path walPath = null;
+        Path snapshotPath = null;
+        boolean lazySnapshot = false;
+        Path competitionStorePath = null;
+        Path archivePath = null;
+        int port = -1;
+        int maxConnections = 0;
+        int shards = 0;
+        FsyncPolicy fsyncPolicy = FsyncPolicy.BATCH;
+        boolean discardOutput = false;
+        boolean extendedAthleteIDs = false;
+        boolean pipelined = false;
+        Path importPath = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(BATCH_OPTION) && i + 1 < args.length) {
+                script = Path.of(args[++i]);
+            } else if (args[i].equals(WAL_OPTION) && i + 1 < args.length) {
+                walPath = Path.of(args[++i]);
+            } else if (args[i].equals(SNAPSHOT_OPTION) && i + 1 < args.length) {
+                snapshotPath = Path.of(args[++i]);
+            } else if (args[i].equals(COMPETITION_STORE_OPTION) && i + 1 < args.length) {
+                competitionStorePath = Path.of(args[++i]);
+            } else if (args[i].equals(ARCHIVE_OPTION) && i + 1 < args.length) {
+                archivePath = Path.of(args[++i]);
+            } else if (args[i].equals(SERVE_OPTION) && i + 1 < args.length) {
+                port = parsePort(args[++i]);
+                if (port < 0) {
+                    System.err.println("Error, invalid port " + args[i] + ".");
+                    return;
+                }
+            } else if (args[i].equals(MAX_CONNECTIONS_OPTION) && i + 1 < args.length) {
+                maxConnections = parseAmount(args[++i]);
+                if (maxConnections <= 0) {
+                    System.err.println("Error, invalid amount of connections " + args[i] + ".");
+                    return;
+                }
+            } else if (args[i].equals(SHARDS_OPTION) && i + 1 < args.length) {
+                shards = parseAmount(args[++i]);
+                if (shards <= 0) {
+                    System.err.println("Error, invalid amount of shards " + args[i] + ".");
+                    return;
+                }
+            } else if (args[i].equals(LAZY_SNAPSHOT_OPTION)) {
+                lazySnapshot = true;
+            } else if (args[i].equals(FSYNC_OPTION) && i + 1 < args.length) {
+                fsyncPolicy = parseFsyncPolicy(args[++i]);
+                if (fsyncPolicy == null) {
+                    System.err.println("Error, unknown fsync policy " + args[i] + ".");
+                    return;
+                }
+            } else if (args[i].equals(IMPORT_OPTION) && i + 1 < args.length) {
+                importPath = Path.of(args[++i]);
+            } else if (args[i].equals(PIPELINE_OPTION)) {
+                pipelined = true;
+            } else if (args[i].equals(DISCARD_OUTPUT_OPTION)) {
+                discardOutput = true;
+            } else if (args[i].equals(EXTENDED_ATHLETE_IDS_OPTION)) {
+                extendedAthleteIDs = true;
+            } else {
+                System.err.println("Error, unknown option " + args[i] + ".");
+                return;
+            }
+        }
+        boolean persistent = walPath != null || snapshotPath != null || competitionStorePath != null
+                || archivePath != null;
+        if (shards > 0 && persistent) {
+            System.err.println("Error, shards can't be persisted.");
+            return;
+        }
+        if (archivePath != null && competitionStorePath == null) {
+            System.err.println("Error, an archive needs a competition store.");
+            return;
+        }
+        OlympicGames olympicGames = (shards > 0) ? new ShardedOlympicGames(shards) : new OlympicGames();
+        olympicGames.setArchivePath(archivePath);
+        try {
+            // The snapshot is restored first, the store is aligned to it and the log continues both
+            if (snapshotPath != null) {
+                olympicGames.openSnapshot(snapshotPath, lazySnapshot);
+            }
+            try (CompetitionStore competitionStore = (competitionStorePath == null) ? null
+                    : new CompetitionStore(competitionStorePath)) {
+                olympicGames.setCompetitionStore(competitionStore);
+                try (WriteAheadLog writeAheadLog = (walPath == null) ? null
+                        : WriteAheadLog.open(walPath, fsyncPolicy, olympicGames)) {
+                    olympicGames.setWriteAheadLog(writeAheadLog);
+                    if (importPath != null) {
+                        importCompetitions(importPath, extendedAthleteIDs, olympicGames,
+                                createOutput(discardOutput, writeAheadLog));
+                    }
+                    if (port >= 0) {
+                        serve(port, (maxConnections > 0) ? maxConnections : defaultMaxConnections(),
+                                extendedAthleteIDs, olympicGames, writeAheadLog);
+                    } else {
+                        run(script, pipelined, extendedAthleteIDs, olympicGames,
+                                createOutput(discardOutput, writeAheadLog));
+                    }
+                }
+            }
+        } catch (IOException ioException) {
+            System.err.println("Error, storage failed: " + ioException.getMessage());
+        }
+    }
+
+    private static Output createOutput(final boolean discardOutput, final WriteAheadLog writeAheadLog) {
+        if (discardOutput) {
+            return new NullOutput();
+        } else if (writeAheadLog != null) {
+            // Responses are only passed on after the mutations behind them have been committed
+            return new BufferedOutput(System.out, writeAheadLog);
+        }
+        return new BufferedOutput(System.out);
+    }
+
+    private static FsyncPolicy parseFsyncPolicy(final String name) {
+        for (FsyncPolicy fsyncPolicy : FsyncPolicy.values()) {
+            if (fsyncPolicy.name().toLowerCase(Locale.ROOT).equals(name)) {
+                return fsyncPolicy;
+            }
+        }
+        return null;
+    }
+
+    private static int parsePort(final String port) {
+        try {
+            int number = Integer.parseInt(port);
+            return (number <= MAX_PORT) ? number : -1;
+        } catch (NumberFormatException numberFormatException) {
+            return -1;
+        }
+    }
+
+    private static int parseAmount(final String amount) {
+        try {
+            return Integer.parseInt(amount);
+        } catch (NumberFormatException numberFormatException) {
+            return -1;
+        }
+    }
+
+    private static int defaultMaxConnections() {
+        return Server.hasVirtualThreads() ? DEFAULT_MAX_CONNECTIONS : DEFAULT_PLATFORM_MAX_CONNECTIONS;
+    }
+
+    private static void serve(final int port, final int maxConnections, final boolean extendedAthleteIDs,
+                              final OlympicGames olympicGames, final WriteAheadLog writeAheadLog) throws IOException {
+        try (Server server = new Server(port, olympicGames, (writeAheadLog == null) ? () -> { } : writeAheadLog,
+                maxConnections, extendedAthleteIDs)) {
+            System.err.println("Serving on port " + server.getPort() + ".");
+            server.run();
+        }
+    }
+
+    private static void importCompetitions(final Path path, final boolean extendedAthleteIDs,
+                                           final OlympicGames olympicGames, final Output output) throws IOException {
+        long start = System.nanoTime();
+        List<String> rows = new ArrayList<>();
+        try (MappedLineReader reader = new MappedLineReader(path)) {
+            String row = reader.readLine();
+            while (row != null) {
+                rows.add(row);
+                row = reader.readLine();
+            }
+        }
+        CompetitionImport competitionImport = new CompetitionImport(olympicGames, rows, extendedAthleteIDs);
+        competitionImport.run();
+        competitionImport.writeResponses(output);
+        output.flush();
+        long elapsedMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        System.err.println("Import finished: " + rows.size() + " rows, " + competitionImport.getErrors()
+                + " errors, " + elapsedMillis + " ms.");
+    }
+
+    private static void run(final Path script, final boolean pipelined, final boolean extendedAthleteIDs,
+                            final OlympicGames olympicGames, final Output output) {
+        if (pipelined) {
+            runPipelined(script, extendedAthleteIDs, olympicGames, output);
+        } else if (script != null) {
+            runBatch(script, new Arguments(extendedAthleteIDs), olympicGames, output);
+        } else {
+            runInteractive(new Arguments(extendedAthleteIDs), olympicGames, output);
+        }
+    }
+
+    private static void runInteractive(final Arguments arguments, final OlympicGames olympicGames,
+                                       final Output output) {
+        Session session = new Session();
         do {
             try {
-                command = Command.matchingCommand(IN.readLine(), olympicGames);
-            } catch (InvalidInputException invalidInputException) {
-                System.out.println("Error, " + invalidInputException.getMessage());
-            } catch (NumberFormatException numberFormatException) {
-                System.out.println("Error, input isn't equal to an integer.");
+                executeSerially(IN.readLine(), arguments, olympicGames, session, output);
+                // Responses are only held back while further input is already waiting
+                if (!IN.ready()) {
+                    output.flush();
+                }
             } catch (IOException ioException) {
                 throw new RuntimeException(ioException);
             }
-        } while (command == null || command.isRunning());
+        } while (session.isRunning());
+        output.flush();
+    }
+
+    private static void runBatch(final Path script, final Arguments arguments, final OlympicGames olympicGames,
+                                 final Output output) {
+        long start = System.nanoTime();
+        long lines = 0;
+        long errors = 0;
+        Session session = new Session();
+        try (MappedLineReader reader = new MappedLineReader(script)) {
+            String line = reader.readLine();
+            while (line != null) {
+                lines++;
+                if (executeSerially(line, arguments, olympicGames, session, output) == null) {
+                    errors++;
+                } else if (!session.isRunning()) {
+                    break;
+                }
+                line = reader.readLine();
+            }
+        } catch (IOException ioException) {
+            throw new RuntimeException(ioException);
+        } finally {
+            output.flush();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+        System.err.println("Batch finished: " + lines + " lines, " + errors + " errors, " + elapsedMillis + " ms.");
+    }
+
+    private static void runPipelined(final Path script, final boolean extendedAthleteIDs,
+                                     final OlympicGames olympicGames, final Output output) {
+        long start = System.nanoTime();
+        Pipeline pipeline = new Pipeline(olympicGames, output, extendedAthleteIDs);
+        try (MappedLineReader reader = (script == null) ? null : new MappedLineReader(script)) {
+            pipeline.run((reader == null) ? interactiveSource() : scriptSource(reader));
+        } catch (IOException ioException) {
+            throw new RuntimeException(ioException);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (script != null) {
+            long elapsedMillis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            System.err.println("Batch finished: " + pipeline.getLines() + " lines, " + pipeline.getErrors()
+                    + " errors, " + elapsedMillis + " ms.");
+        }
+    }
+
+    private static Pipeline.LineSource interactiveSource() {
+        return new Pipeline.LineSource() {
+            @Override
+            public String readLine() throws IOException {
+                return IN.readLine();
+            }
+
+            @Override
+            public boolean ready() throws IOException {
+                return IN.ready();
+            }
+        };
+    }
+
+    private static Pipeline.LineSource scriptSource(final MappedLineReader reader) {
+        return new Pipeline.LineSource() {
+            @Override
+            public String readLine() throws IOException {
+                return reader.readLine();
+            }
+
+            @Override
+            public boolean ready() {
+                // The whole script is available, so the responses are only flushed at its end
+                return true;
+            }
+        };
+    }
+
+    private static Command executeSerially(final String line, final Arguments arguments,
+                                           final OlympicGames olympicGames, final Session session,
+                                           final Output output) {
+        // Without any concurrent command, the read view is simply brought up to date before it is read
+        if (Command.isReadOnly(line, olympicGames)) {
+            olympicGames.publish();
+        }
+        return execute(line, arguments, olympicGames, session, output);
+    }
+
+    /**
+     * Executes a single line of input and writes its response or error message.
+     *
+     * @param line         Line of input.
+     * @param arguments    Container which receives the validated arguments.
+     * @param olympicGames Reference to Olympic Games control.
+     * @param session      Session from which the line originates.
+     * @param output       Sink for the responses.
+     * @return The executed command or null, if the line was invalid.
+     */
+    static Command execute(final String line, final Arguments arguments, final OlympicGames olympicGames,
+                           final Session session, final Output output) {
+        try {
+            return Command.matchingCommand(line, arguments, olympicGames, session, output);
+        } catch (InvalidInputException invalidInputException) {
+            output.println("Error, " + invalidInputException.getMessage());
+        } catch (NumberFormatException numberFormatException) {
+            output.println("Error, input isn't equal to an integer.");
+        }
+        return null;
+    }
+
+    /**
+     * Executes a command which has already been parsed and writes its response or
+     * error message.
+     *
+     * @param command      Parsed command or null, if the line was invalid.
+     * @param arguments    Validated arguments of the command.
+     * @param olympicGames Reference to Olympic Games control.
+     * @param session      Session from which the line originates.
+     * @param output       Sink for the responses.
+     * @return The executed command or null, if the line was invalid.
+     */
+    static Command execute(final Command command, final Arguments arguments, final OlympicGames olympicGames,
+                           final Session session, final Output output) {
+        try {
+            return Command.matchingCommand(command, arguments, olympicGames, session, output);
+        } catch (InvalidInputException invalidInputException) {
+            output.println("Error, " + invalidInputException.getMessage());
+        } catch (NumberFormatException numberFormatException) {
+            output.println("Error, input isn't equal to an integer.");
+        }
+        return null;
     }
 }
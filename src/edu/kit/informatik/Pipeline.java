@@ -0,0 +1,267 @@
+package edu.kit.informatik;
+
+import edu.kit.informatik.io.Output;
+import edu.kit.informatik.olympia.OlympicGames;
+import edu.kit.informatik.olympia.Session;
+
+import java.io.IOException;
+
+/**
+ * This class processes lines of input in three stages, which overlap with each
+ * other on their own threads. A reader thread reads the lines and parses their
+ * commands, the calling thread applies the parsed commands to the Olympic Games
+ * as their only writer, and a render thread writes the responses to the output.
+ * The stages are connected by bounded ring buffers, so the responses are written
+ * in exactly the order of the lines.
+ * <p>
+ * Parsed lines are passed in jobs, which are handed back to the reader once they
+ * have been applied, so that no job is created per line.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class Pipeline {
+
+    private static final int CAPACITY = 1 << 10;
+    // One job is being parsed and one is being applied while the buffer is full
+    private static final int JOBS = CAPACITY + 2;
+    // Markers which are compared by identity, so that they never match a response
+    private static final String FLUSH = new String("flush");
+    private static final String END = new String("end");
+
+    private final OlympicGames olympicGames;
+    private final Output output;
+    private final RingBuffer<Job> parsedJobs;
+    private final RingBuffer<Job> freeJobs;
+    private final RingBuffer<String> responses;
+    private final Job endOfInput;
+
+    private volatile boolean stopped;
+    private volatile RuntimeException renderFailure;
+    private IOException readFailure;
+    private long lines;
+    private long errors;
+
+    /**
+     * Creates a pipeline which applies the lines to the given Olympic Games.
+     *
+     * @param olympicGames       Reference to Olympic Games control.
+     * @param output             Sink for the responses, which is only written by
+     *                           the render thread.
+     * @param extendedAthleteIDs True, if athlete IDs may have more than four
+     *                           digits. False, if they are limited to four digits.
+     */
+    public Pipeline(final OlympicGames olympicGames, final Output output, final boolean extendedAthleteIDs) {
+        this.olympicGames = olympicGames;
+        this.output = output;
+        this.parsedJobs = new RingBuffer<>(CAPACITY);
+        this.freeJobs = new RingBuffer<>(Integer.highestOneBit(JOBS) << 1);
+        for (int i = 0; i < JOBS; i++) {
+            freeJobs.offer(new Job(extendedAthleteIDs));
+        }
+        this.responses = new RingBuffer<>(CAPACITY);
+        this.endOfInput = new Job(extendedAthleteIDs);
+    }
+
+    /**
+     * Processes the lines of a source until the source is exhausted or the
+     * session has been quit.
+     *
+     * @param source Source of the lines.
+     * @throws IOException          if the source can't be read.
+     * @throws InterruptedException if the pipeline is interrupted while waiting
+     *                              for the render thread.
+     */
+    public void run(final LineSource source) throws IOException, InterruptedException {
+        // The reader may be blocked on its source after a quit, so it mustn't keep the program alive
+        Thread reader = new Thread(() -> read(source), "pipeline-reader");
+        reader.setDaemon(true);
+        Thread renderer = new Thread(this::render, "pipeline-renderer");
+        reader.start();
+        renderer.start();
+        apply();
+        renderer.join();
+        if (renderFailure != null) {
+            throw renderFailure;
+        }
+        if (readFailure != null) {
+            throw readFailure;
+        }
+    }
+
+    /**
+     * Returns the amount of lines which have been applied.
+     *
+     * @return Amount of applied lines.
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * Returns the amount of applied lines which have been answered with an error.
+     *
+     * @return Amount of erroneous lines.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    private void read(final LineSource source) {
+        try {
+            String line = source.readLine();
+            while (line != null && !stopped) {
+                Job job = take(freeJobs);
+                if (job == null) {
+                    return;
+                }
+                job.command = Command.parse(line, job.arguments);
+                // Responses are only held back while further input is already waiting
+                job.flush = !source.ready();
+                if (!put(parsedJobs, job)) {
+                    return;
+                }
+                line = source.readLine();
+            }
+        } catch (IOException ioException) {
+            // The failure is visible to the applying thread once it has taken the end of the input
+            readFailure = ioException;
+        }
+        put(parsedJobs, endOfInput);
+    }
+
+    private void apply() {
+        Session session = new Session();
+        Output renderOutput = new RenderOutput();
+        Job job = take(parsedJobs);
+        // Once the responses can't be written anymore, no further line may be applied without its response
+        while (job != null && job != endOfInput && renderFailure == null) {
+            lines++;
+            // Without any concurrent command, the read view is simply brought up to date before it is read
+            if (Command.isReadOnly(job.command, olympicGames)) {
+                olympicGames.publish();
+            }
+            if (Main.execute(job.command, job.arguments, olympicGames, session, renderOutput) == null) {
+                errors++;
+            }
+            boolean flush = job.flush;
+            // The pool holds every job, so a job can always be handed back
+            freeJobs.offer(job);
+            if (!session.isRunning()) {
+                stopped = true;
+                break;
+            }
+            if (flush && !put(responses, FLUSH)) {
+                return;
+            }
+            job = take(parsedJobs);
+        }
+        stopped = true;
+        put(responses, END);
+    }
+
+    private void render() {
+        try {
+            for (int attempt = 0; true; attempt++) {
+                String response = responses.poll();
+                if (response == END) {
+                    output.flush();
+                    return;
+                } else if (response == FLUSH) {
+                    output.flush();
+                } else if (response != null) {
+                    output.println(response);
+                    attempt = -1;
+                } else {
+                    RingBuffer.idle(attempt);
+                }
+            }
+        } catch (RuntimeException runtimeException) {
+            renderFailure = runtimeException;
+            stopped = true;
+        }
+    }
+
+    private <E> boolean put(final RingBuffer<E> ringBuffer, final E element) {
+        for (int attempt = 0; !ringBuffer.offer(element); attempt++) {
+            // Only the end of the responses is still passed on after the pipeline has been stopped
+            if (renderFailure != null || (stopped && element != END)) {
+                return false;
+            }
+            RingBuffer.idle(attempt);
+        }
+        return true;
+    }
+
+    private <E> E take(final RingBuffer<E> ringBuffer) {
+        for (int attempt = 0; true; attempt++) {
+            E element = ringBuffer.poll();
+            if (element != null) {
+                return element;
+            } else if (stopped) {
+                return null;
+            }
+            RingBuffer.idle(attempt);
+        }
+    }
+
+    /**
+     * This interface is a source of lines for a pipeline.
+     */
+    public interface LineSource {
+
+        /**
+         * Reads the next line.
+         *
+         * @return The next line or null, if the source is exhausted.
+         * @throws IOException if the source can't be read.
+         */
+        String readLine() throws IOException;
+
+        /**
+         * Returns whether a further line can be read without waiting.
+         *
+         * @return True, if further input is already waiting.
+         * @throws IOException if the source can't be read.
+         */
+        boolean ready() throws IOException;
+    }
+
+    /**
+     * This class is a parsed line, which is passed from the reader to the
+     * applying thread and back.
+     */
+    private static final class Job {
+
+        private final Arguments arguments;
+        private Command command;
+        private boolean flush;
+
+        /**
+         * Creates an empty job.
+         *
+         * @param extendedAthleteIDs True, if athlete IDs may have more than four
+         *                           digits. False, if they are limited to four
+         *                           digits.
+         */
+        Job(final boolean extendedAthleteIDs) {
+            this.arguments = new Arguments(extendedAthleteIDs);
+        }
+    }
+
+    /**
+     * This class passes the responses of the applied commands to the render
+     * thread.
+     */
+    private final class RenderOutput implements Output {
+
+        @Override
+        public void println(final String line) {
+            put(responses, line);
+        }
+
+        @Override
+        public void flush() {
+            // The render thread flushes once no further input is waiting
+        }
+    }
+}
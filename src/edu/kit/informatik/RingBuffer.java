@@ -0,0 +1,104 @@
+package edu.kit.informatik;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is a bounded ring buffer which passes elements from exactly one
+ * producer thread to exactly one consumer thread. Each side only writes its own
+ * position, so that neither offering nor polling needs a lock or any atomic
+ * read-modify-write operation.
+ *
+ * @param <E> Type of the passed elements.
+ * @author Bjoern Holtvogt
+ */
+public final class RingBuffer<E> {
+
+    private static final int SPINS = 100;
+    private static final int YIELDS = 200;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final Object[] elements;
+    private final int mask;
+
+    // Position of the next element to poll, only written by the consumer
+    private volatile long head;
+    // Position of the next element to offer, only written by the producer
+    private volatile long tail;
+
+    /**
+     * Creates an empty ring buffer.
+     *
+     * @param capacity Amount of elements the buffer holds at most, which has to
+     *                 be a power of two.
+     */
+    public RingBuffer(final int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity has to be a power of two.");
+        }
+        this.elements = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Appends an element, if the buffer isn't full. Only the producer may offer.
+     *
+     * @param element Element which is going to be passed.
+     * @return True, if the element has been appended. False, if the buffer is
+     * full.
+     */
+    public boolean offer(final E element) {
+        long position = tail;
+        if (position - head == elements.length) {
+            return false;
+        }
+        elements[(int) position & mask] = element;
+        // Writing the position publishes the element to the consumer
+        tail = position + 1;
+        return true;
+    }
+
+    /**
+     * Removes the oldest element, if the buffer isn't empty. Only the consumer
+     * may poll.
+     *
+     * @return The oldest element or null, if the buffer is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = head;
+        if (position == tail) {
+            return null;
+        }
+        int slot = (int) position & mask;
+        E element = (E) elements[slot];
+        elements[slot] = null;
+        head = position + 1;
+        return element;
+    }
+
+    /**
+     * Returns whether the buffer holds no element at the moment.
+     *
+     * @return True, if the buffer is empty.
+     */
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * Waits a little while for the other side of a buffer. Short waits spin, so
+     * that a busy pipeline isn't slowed down, while longer waits give up the
+     * processor.
+     *
+     * @param attempt Amount of times the caller has already waited in vain.
+     */
+    public static void idle(final int attempt) {
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempt < YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
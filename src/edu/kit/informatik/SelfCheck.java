@@ -0,0 +1,383 @@
+package edu.kit.informatik;
+
+import edu.kit.informatik.io.Output;
+import edu.kit.informatik.olympia.CompetitionArchive;
+import edu.kit.informatik.olympia.CompetitionStore;
+import edu.kit.informatik.olympia.OlympicGames;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * The self check runs the storage formats and the parallel paths of the Olympic
+ * Games through round trips on generated data in a temporary directory, and
+ * compares the results with what has been put in. It is meant to be run after
+ * any change to these formats or paths, since the program itself only reads what
+ * it has written.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class SelfCheck {
+
+    private static final String[] IOC_CODES = {"caa", "cba", "cca"};
+    private static final String[] SPORTS = {"s0", "s1"};
+    private static final String DISCIPLINE = "d";
+    private static final int DETERMINATION_YEAR = 1920;
+    private static final int FIRST_YEAR = 1926;
+    private static final int TURNUS = 4;
+    // Enough athletes and competitions for several blocks of the archive
+    private static final int ATHLETES = 600;
+    private static final int MAX_GAMES = 16;
+    private static final int SECOND_SPORT_EVERY = 5;
+    private static final int DUPLICATE_EVERY = 7;
+    private static final int MISSING_ATHLETE_ID = 9999;
+    private static final int MEDAL_KINDS = 4;
+    private static final long IMPORT_SEED = 42L;
+    private static final String[] INVALID_ROWS = {"", "0001;1926", "0001;1926;C2;s1;d;1;1;0",
+        "9999;1926;C1;s0;d;0;0;0"};
+
+    /**
+     * Private constructor to avoid object generation.
+     *
+     * @deprecated Utility-class constructor.
+     */
+    @Deprecated
+    private SelfCheck() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Runs all checks and reports each of them. The exit status is 1, if any
+     * check has failed.
+     *
+     * @param args No arguments.
+     * @throws IOException if the temporary directory can't be used.
+     */
+    public static void main(final String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("olympic-games-check");
+        boolean failed = false;
+        try {
+            failed |= !report("Archive round trip", () -> checkArchive(directory.resolve("archive")));
+            failed |= !report("Import after an eager snapshot",
+                    () -> checkImport(directory.resolve("eager"), false));
+            failed |= !report("Import after a lazy snapshot", () -> checkImport(directory.resolve("lazy"), true));
+        } finally {
+            delete(directory);
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean report(final String name, final Check check) {
+        try {
+            check.run();
+            System.out.println(name + ": OK.");
+            return true;
+        } catch (IOException | InvalidInputException | IllegalStateException exception) {
+            System.out.println(name + ": Error, " + exception.getMessage());
+            return false;
+        }
+    }
+
+    private static void checkArchive(final Path directory) throws IOException, InvalidInputException {
+        Files.createDirectories(directory);
+        Path archivePath = directory.resolve("archive");
+        OlympicGames olympicGames = new OlympicGames();
+        try (CompetitionStore competitionStore = new CompetitionStore(directory.resolve("store"))) {
+            olympicGames.setCompetitionStore(competitionStore);
+            olympicGames.openSnapshot(directory.resolve("snapshot"), false);
+            olympicGames.setArchivePath(archivePath);
+            int[][] medals = new int[ATHLETES + 1][SPORTS.length];
+            int[][] games = new int[ATHLETES + 1][SPORTS.length];
+            int accepted = addAll(olympicGames, medals, games);
+            olympicGames.checkpoint();
+
+            CompetitionArchive archive = new CompetitionArchive(archivePath);
+            archive.verify();
+            expect(archive.getCountryCount() == IOC_CODES.length, "countries of the archive differ.");
+            for (int ordinal = 0; ordinal < IOC_CODES.length; ordinal++) {
+                expect(archive.getCountryCode(ordinal).equals(IOC_CODES[ordinal]), "IOC codes of the archive differ.");
+            }
+            expect(archive.getSportsCount() == SPORTS.length, "sports of the archive differ.");
+            for (int ordinal = 0; ordinal < SPORTS.length; ordinal++) {
+                expect(archive.getSport(ordinal).getSport().equals(SPORTS[ordinal])
+                        && archive.getSport(ordinal).getDiscipline().equals(DISCIPLINE),
+                        "sports of the archive differ.");
+            }
+            for (int athleteID = 1; athleteID <= ATHLETES; athleteID++) {
+                expect((foreName(athleteID) + " " + surName(athleteID)).equals(archive.getAthleteName(athleteID)),
+                        "name of athlete " + athleteID + " differs.");
+            }
+            expect(archive.getAthleteName(MISSING_ATHLETE_ID) == null, "archive contains an unknown athlete.");
+            checkParticipations(archive, medals, games);
+            checkCompetitions(archive, competitionStore, accepted);
+            checkDamage(archivePath, directory.resolve("damaged"));
+        }
+    }
+
+    private static void checkImport(final Path directory, final boolean lazy)
+            throws IOException, InvalidInputException {
+        Files.createDirectories(directory);
+        Path snapshotPath = directory.resolve("snapshot");
+        OlympicGames original = new OlympicGames();
+        original.openSnapshot(snapshotPath, false);
+        addReferenceData(original);
+        for (int athleteID = 1; athleteID <= ATHLETES; athleteID++) {
+            addAthlete(original, athleteID);
+        }
+        original.checkpoint();
+
+        List<String> rows = importRows();
+        // Adding the rows one after another gives the responses the import has to match
+        OlympicGames sequential = new OlympicGames();
+        sequential.openSnapshot(snapshotPath, lazy);
+        List<String> expected = new ArrayList<>();
+        for (String row : rows) {
+            expected.add(addRow(sequential, row));
+        }
+        OlympicGames imported = new OlympicGames();
+        imported.openSnapshot(snapshotPath, lazy);
+        CompetitionImport competitionImport = new CompetitionImport(imported, rows, false);
+        expect(competitionImport.addsInParallel() != lazy, "import misses the pending athletes of the snapshot.");
+        competitionImport.run();
+        Lines responses = new Lines();
+        competitionImport.writeResponses(responses);
+        expect(responses.lines.equals(expected), "responses of the import differ from add-competition.");
+        expect(listings(imported).equals(listings(sequential)), "listings after the import differ.");
+    }
+
+    private static List<String> importRows() {
+        List<String> rows = new ArrayList<>();
+        for (int athleteID = 1; athleteID <= ATHLETES; athleteID++) {
+            String country = countryName(athleteID % IOC_CODES.length);
+            for (int k = 0; k < athleteID % MAX_GAMES; k++) {
+                int medal = (athleteID + k) % MEDAL_KINDS;
+                rows.add(String.format("%04d;%d;%s;%s;%s;%d;%d;%d", athleteID, FIRST_YEAR + k * TURNUS, country,
+                        SPORTS[athleteID % SPORTS.length], DISCIPLINE, (medal == 1) ? 1 : 0, (medal == 2) ? 1 : 0,
+                        (medal == 3) ? 1 : 0));
+            }
+        }
+        // Duplicates decide by their order within the rows of their athlete
+        Random random = new Random(IMPORT_SEED);
+        int competitions = rows.size();
+        for (int i = 0; i < competitions / DUPLICATE_EVERY; i++) {
+            rows.add(rows.get(random.nextInt(competitions)));
+        }
+        for (String invalidRow : INVALID_ROWS) {
+            rows.add(invalidRow);
+        }
+        Collections.shuffle(rows, random);
+        return rows;
+    }
+
+    private static String addRow(final OlympicGames olympicGames, final String row) {
+        Arguments arguments = new Arguments();
+        if (!Command.CMD_ADD_COMPETITION.parseArguments(row, arguments)) {
+            return "Error, invalid command.";
+        }
+        try {
+            return olympicGames.addCompetition(arguments.getInt(0), arguments.getInt(1), arguments.getString(2),
+                    arguments.getString(3), arguments.getString(4), arguments.getInt(5), arguments.getInt(6),
+                    arguments.getInt(7));
+        } catch (InvalidInputException invalidInputException) {
+            return "Error, " + invalidInputException.getMessage();
+        }
+    }
+
+    private static List<String> listings(final OlympicGames olympicGames) throws InvalidInputException {
+        olympicGames.publish();
+        Lines lines = new Lines();
+        olympicGames.olympicMedalTable(lines);
+        for (String sport : SPORTS) {
+            olympicGames.summaryAthlete(sport, DISCIPLINE, lines);
+        }
+        return lines.lines;
+    }
+
+    private static void addReferenceData(final OlympicGames olympicGames) throws InvalidInputException {
+        for (int ordinal = 0; ordinal < IOC_CODES.length; ordinal++) {
+            olympicGames.addIocCode(ordinal + 1, IOC_CODES[ordinal], countryName(ordinal), DETERMINATION_YEAR);
+        }
+        for (String sport : SPORTS) {
+            olympicGames.addOlympicSport(sport, DISCIPLINE);
+        }
+    }
+
+    private static void addAthlete(final OlympicGames olympicGames, final int athleteID)
+            throws InvalidInputException {
+        String country = countryName(athleteID % IOC_CODES.length);
+        int sport = athleteID % SPORTS.length;
+        olympicGames.addAthlete(athleteID, foreName(athleteID), surName(athleteID), country, SPORTS[sport],
+                DISCIPLINE);
+        if (athleteID % SECOND_SPORT_EVERY == 0) {
+            olympicGames.addAthlete(athleteID, foreName(athleteID), surName(athleteID), country, SPORTS[1 - sport],
+                    DISCIPLINE);
+        }
+    }
+
+    private static int addAll(final OlympicGames olympicGames, final int[][] medals, final int[][] games)
+            throws InvalidInputException {
+        addReferenceData(olympicGames);
+        int accepted = 0;
+        for (int athleteID = 1; athleteID <= ATHLETES; athleteID++) {
+            String country = countryName(athleteID % IOC_CODES.length);
+            int sport = athleteID % SPORTS.length;
+            addAthlete(olympicGames, athleteID);
+            for (int k = 0; k < athleteID % MAX_GAMES; k++) {
+                int medal = (athleteID + k) % MEDAL_KINDS;
+                olympicGames.addCompetition(athleteID, FIRST_YEAR + k * TURNUS, country, SPORTS[sport], DISCIPLINE,
+                        (medal == 1) ? 1 : 0, (medal == 2) ? 1 : 0, (medal == 3) ? 1 : 0);
+                medals[athleteID][sport] += (medal == 0) ? 0 : 1;
+                games[athleteID][sport]++;
+                accepted++;
+            }
+            // A second competition in the same year is rejected and mustn't reach the archive
+            if (athleteID % DUPLICATE_EVERY == 0 && athleteID % MAX_GAMES > 0) {
+                try {
+                    olympicGames.addCompetition(athleteID, FIRST_YEAR, country, SPORTS[sport], DISCIPLINE, 0, 0, 0);
+                    throw new IllegalStateException("duplicate competition has been accepted.");
+                } catch (InvalidInputException invalidInputException) {
+                    // Expected
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private static void checkParticipations(final CompetitionArchive archive, final int[][] medals,
+                                            final int[][] games) {
+        int[][] archivedMedals = new int[ATHLETES + 1][SPORTS.length];
+        int[][] archivedGames = new int[ATHLETES + 1][SPORTS.length];
+        archive.scanParticipations((athleteID, countryOrdinal, sportOrdinal, sportsMedals, competedGames) -> {
+            expect(countryOrdinal == athleteID % IOC_CODES.length, "country of athlete " + athleteID + " differs.");
+            archivedMedals[athleteID][sportOrdinal] = sportsMedals;
+            archivedGames[athleteID][sportOrdinal] = Integer.bitCount(competedGames);
+        });
+        for (int athleteID = 1; athleteID <= ATHLETES; athleteID++) {
+            for (int sport = 0; sport < SPORTS.length; sport++) {
+                expect(archivedMedals[athleteID][sport] == medals[athleteID][sport]
+                        && archivedGames[athleteID][sport] == games[athleteID][sport],
+                        "participation of athlete " + athleteID + " differs.");
+            }
+        }
+    }
+
+    private static void checkCompetitions(final CompetitionArchive archive, final CompetitionStore competitionStore,
+                                          final int accepted) {
+        expect(competitionStore.size() == accepted, "store holds " + competitionStore.size() + " of " + accepted
+                + " competitions.");
+        // The archive orders the rows of the store by athlete, keeping their order per athlete
+        List<long[]> expected = new ArrayList<>();
+        for (int row = 0; row < competitionStore.size(); row++) {
+            expected.add(new long[] {competitionStore.getAthleteID(row), row});
+        }
+        expected.sort(Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+        int[] position = new int[1];
+        archive.scanCompetitions((athleteID, gamesOrdinal, countryOrdinal, sportOrdinal, medal) -> {
+            expect(position[0] < expected.size(), "archive holds more competitions than the store.");
+            long row = expected.get(position[0])[1];
+            expect(athleteID == competitionStore.getAthleteID(row)
+                    && gamesOrdinal == competitionStore.getGamesOrdinal(row)
+                    && countryOrdinal == competitionStore.getCountryOrdinal(row)
+                    && sportOrdinal == competitionStore.getSportOrdinal(row)
+                    && medal == competitionStore.getMedal(row), "competition " + position[0] + " differs.");
+            position[0]++;
+        });
+        expect(position[0] == expected.size(), "archive holds " + position[0] + " of " + expected.size()
+                + " competitions.");
+        for (int athleteID = 1; athleteID <= ATHLETES; athleteID++) {
+            int wanted = athleteID;
+            int[] count = new int[1];
+            archive.scanCompetitions(athleteID, (id, gamesOrdinal, countryOrdinal, sportOrdinal, medal) -> {
+                expect(id == wanted, "scan of athlete " + wanted + " hands out athlete " + id + ".");
+                count[0]++;
+            });
+            expect(count[0] == athleteID % MAX_GAMES, "competitions of athlete " + athleteID + " differ.");
+        }
+    }
+
+    private static void checkDamage(final Path archivePath, final Path damagedPath) throws IOException {
+        byte[] bytes = Files.readAllBytes(archivePath);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(damagedPath, bytes);
+        try {
+            new CompetitionArchive(damagedPath).verify();
+        } catch (IOException ioException) {
+            return;
+        }
+        throw new IllegalStateException("damaged archive passes its verification.");
+    }
+
+    private static String countryName(final int ordinal) {
+        return "C" + (ordinal + 1);
+    }
+
+    private static String foreName(final int athleteID) {
+        return "F" + athleteID;
+    }
+
+    private static String surName(final int athleteID) {
+        return "S" + athleteID;
+    }
+
+    private static void expect(final boolean condition, final String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException ioException) {
+                    throw new UncheckedIOException(ioException);
+                }
+            });
+        }
+    }
+
+    /**
+     * This class collects the written lines, so that they can be compared.
+     */
+    private static final class Lines implements Output {
+
+        private final List<String> lines = new ArrayList<>();
+
+        @Override
+        public void println(final String line) {
+            lines.add(line);
+        }
+
+        @Override
+        public void flush() {
+            // The lines are only collected
+        }
+    }
+
+    /**
+     * This interface is a single check, which fails by throwing.
+     */
+    @FunctionalInterface
+    private interface Check {
+
+        /**
+         * Runs the check.
+         *
+         * @throws IOException           if a file of the check can't be used.
+         * @throws InvalidInputException if the Olympic Games reject the generated
+         *                               data.
+         */
+        void run() throws IOException, InvalidInputException;
+    }
+}
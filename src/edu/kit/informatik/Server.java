@@ -0,0 +1,275 @@
+package edu.kit.informatik;
+
+import edu.kit.informatik.io.BufferedOutput;
+import edu.kit.informatik.io.Output;
+import edu.kit.informatik.olympia.OlympicGames;
+import edu.kit.informatik.olympia.Session;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class serves the commands of many clients at once over a local TCP port.
+ * Every connection speaks the same line protocol as the "standard" input stream
+ * and has its own session, so that each client logs in on its own. Responses
+ * are written back to the connection the command came from.
+ * <p>
+ * All connections share the same Olympic Games. Competitions are added
+ * concurrently with each other, while every other command which may change the
+ * state is executed exclusively, unless the Olympic Games confine their
+ * mutations to threads of their own. Listings only read the latest published read
+ * view and never wait for them. A connection publishes its mutations once its
+ * current batch of input has been processed, and right before it lists anything
+ * itself, so that each client always sees its own mutations.
+ * <p>
+ * Every connection runs the blocking command loop on a virtual thread, so that
+ * idle connections don't hold a platform thread each. Runtimes without virtual
+ * threads fall back to platform threads with a small stack, which is reported
+ * when the server is opened. The amount of concurrent connections is limited,
+ * and further clients wait in the backlog until a connection has been closed.
+ * <p>
+ * If the mutations can't be committed anymore, the server stops, since any
+ * further response would claim mutations which aren't durable. Connections which
+ * fail on their own side are simply closed.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class Server implements Closeable {
+
+    private static final int BACKLOG = 1024;
+    private static final int REQUEST_BUFFER_SIZE = 1 << 10;
+    private static final int RESPONSE_BUFFER_SIZE = 1 << 12;
+    private static final long PLATFORM_STACK_SIZE = 1L << 18;
+    // Null on runtimes without virtual threads
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = virtualThreadFactory();
+
+    private final ServerSocket serverSocket;
+    private final OlympicGames olympicGames;
+    private final Flushable barrier;
+    private final ReadWriteLock lock;
+    private final Semaphore connections;
+    private final ThreadFactory threadFactory;
+    private final boolean extendedAthleteIDs;
+    private volatile IOException storageFailure;
+
+    /**
+     * Opens a server on a port of the loopback address.
+     *
+     * @param port               Port on which the server listens, or 0 for any
+     *                           free port.
+     * @param olympicGames       Olympic Games which are shared by all
+     *                           connections.
+     * @param barrier            Barrier which is flushed before responses are
+     *                           written back, so that the mutations behind them
+     *                           are committed.
+     * @param maxConnections     Amount of connections which are served at most
+     *                           at the same time.
+     * @param extendedAthleteIDs True, if athlete IDs may have more than four
+     *                           digits. False, if they are limited to four digits.
+     * @throws IOException if the port can't be opened.
+     */
+    public Server(final int port, final OlympicGames olympicGames, final Flushable barrier,
+                  final int maxConnections, final boolean extendedAthleteIDs) throws IOException {
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.olympicGames = olympicGames;
+        this.barrier = barrier;
+        this.lock = new ReentrantReadWriteLock();
+        this.connections = new Semaphore(maxConnections);
+        this.threadFactory = (VIRTUAL_THREAD_FACTORY != null) ? VIRTUAL_THREAD_FACTORY : platformThreadFactory();
+        this.extendedAthleteIDs = extendedAthleteIDs;
+        // Listings mustn't see the state before it has been restored
+        olympicGames.publish();
+    }
+
+    /**
+     * Returns the port on which the server listens.
+     *
+     * @return Port of the server.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed. Every connection is served
+     * by a thread of its own.
+     *
+     * @throws IOException if the server has stopped, since the mutations couldn't
+     *                     be committed.
+     */
+    public void run() throws IOException {
+        while (!serverSocket.isClosed()) {
+            // No connection is accepted while the limit is reached
+            connections.acquireUninterruptibly();
+            try {
+                Socket socket = serverSocket.accept();
+                threadFactory.newThread(() -> serve(socket)).start();
+            } catch (IOException ioException) {
+                connections.release();
+                // Closing the server interrupts the accepting
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Error, connection can't be accepted: " + ioException.getMessage());
+                }
+            }
+        }
+        if (storageFailure != null) {
+            throw storageFailure;
+        }
+    }
+
+    /**
+     * Stops accepting connections. Connections which have already been accepted
+     * are served until their client quits.
+     *
+     * @throws IOException if the port can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void serve(final Socket socket) {
+        try (socket) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8), REQUEST_BUFFER_SIZE);
+            Output output = new BufferedOutput(socket.getOutputStream(), this::commit, RESPONSE_BUFFER_SIZE);
+            Session session = new Session();
+            Arguments arguments = new Arguments(extendedAthleteIDs);
+            boolean published = true;
+            String line = reader.readLine();
+            while (line != null && storageFailure == null) {
+                if (Command.isReadOnly(line, olympicGames)) {
+                    if (!published) {
+                        publish();
+                        published = true;
+                    }
+                    Main.execute(line, arguments, olympicGames, session, output);
+                } else if (olympicGames.confinesMutations()) {
+                    Main.execute(line, arguments, olympicGames, session, output);
+                    published = false;
+                } else if (Command.isConcurrent(line, olympicGames)) {
+                    execute(line, arguments, session, output, lock.readLock());
+                    published = false;
+                } else {
+                    execute(line, arguments, session, output, lock.writeLock());
+                    published = false;
+                }
+                if (!session.isRunning()) {
+                    break;
+                }
+                // Responses are only held back while further input is already waiting
+                if (!reader.ready()) {
+                    if (!published) {
+                        publish();
+                        published = true;
+                    }
+                    output.flush();
+                }
+                line = reader.readLine();
+            }
+            if (!published) {
+                publish();
+            }
+            output.flush();
+        } catch (IOException | UncheckedIOException exception) {
+            // A failed commit keeps failing, so committing once more tells it apart from a client which has gone away
+            try {
+                commit();
+            } catch (IOException storageException) {
+                // The server has been stopped by the commit
+            }
+        } finally {
+            connections.release();
+        }
+    }
+
+    private void execute(final String line, final Arguments arguments, final Session session, final Output output,
+                         final Lock held) {
+        // Concurrent competitions share the read lock, which keeps any other mutation out
+        held.lock();
+        try {
+            Main.execute(line, arguments, olympicGames, session, output);
+        } finally {
+            held.unlock();
+        }
+    }
+
+    private void commit() throws IOException {
+        try {
+            barrier.flush();
+        } catch (IOException ioException) {
+            stop(ioException);
+            throw ioException;
+        }
+    }
+
+    private synchronized void stop(final IOException failure) {
+        if (storageFailure != null) {
+            return;
+        }
+        storageFailure = failure;
+        try {
+            serverSocket.close();
+        } catch (IOException ioException) {
+            // The server stops accepting connections either way
+        }
+        // Wakes up the accepting thread, even if it waits for a free connection
+        connections.release();
+    }
+
+    private void publish() {
+        if (olympicGames.confinesMutations()) {
+            olympicGames.publish();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            olympicGames.publish();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether connections are served by virtual threads on this runtime.
+     *
+     * @return True, if virtual threads are available. False, if every connection
+     * holds a platform thread.
+     */
+    public static boolean hasVirtualThreads() {
+        return VIRTUAL_THREAD_FACTORY != null;
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        // Virtual threads are looked up reflectively, since older runtimes don't know them
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException reflectiveOperationException) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        System.err.println("Warning, virtual threads aren't available, so every connection holds a platform thread.");
+        return task -> {
+            // Connections mustn't keep the program alive once the server has stopped
+            Thread thread = new Thread(null, task, "connection", PLATFORM_STACK_SIZE);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
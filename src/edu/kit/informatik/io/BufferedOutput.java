@@ -0,0 +1,91 @@
+package edu.kit.informatik.io;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class collects the written lines in a large buffer and only passes them
+ * to the underlying stream when the buffer is full or when it is flushed
+ * explicitly, so that a whole batch of responses is written at once. An
+ * optional barrier is flushed right before the buffered lines are passed on,
+ * which allows to commit the work behind the responses first.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class BufferedOutput implements Output {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer writer;
+    private final Flushable barrier;
+    private final int bufferSize;
+    private int buffered;
+
+    /**
+     * Creates a buffered output for the given stream.
+     *
+     * @param stream Stream to which the buffered lines are written.
+     */
+    public BufferedOutput(final OutputStream stream) {
+        this(stream, () -> { });
+    }
+
+    /**
+     * Creates a buffered output for the given stream, which flushes a barrier
+     * before any buffered line is passed on.
+     *
+     * @param stream  Stream to which the buffered lines are written.
+     * @param barrier Barrier which is flushed before the buffered lines.
+     */
+    public BufferedOutput(final OutputStream stream, final Flushable barrier) {
+        this(stream, barrier, BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a buffered output for the given stream with a buffer of the given
+     * size, which flushes a barrier before any buffered line is passed on.
+     *
+     * @param stream     Stream to which the buffered lines are written.
+     * @param barrier    Barrier which is flushed before the buffered lines.
+     * @param bufferSize Amount of characters which are buffered at most.
+     */
+    public BufferedOutput(final OutputStream stream, final Flushable barrier, final int bufferSize) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), bufferSize);
+        this.barrier = barrier;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void println(final String line) {
+        int length = line.length() + LINE_SEPARATOR.length();
+        // The writer mustn't pass on a full buffer by itself, since it would bypass the barrier
+        if (buffered + length > bufferSize) {
+            flush();
+        }
+        try {
+            writer.write(line);
+            writer.write(LINE_SEPARATOR);
+            buffered += length;
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            barrier.flush();
+            writer.flush();
+            buffered = 0;
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package edu.kit.informatik.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This stream counts the bytes written through it, which gives the position of
+ * every record within the written file.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    /**
+     * Creates a stream which counts the bytes written to another stream.
+     *
+     * @param stream Stream to which the bytes are written.
+     */
+    public CountingOutputStream(final OutputStream stream) {
+        super(stream);
+    }
+
+    /**
+     * Returns the amount of bytes which have been written so far.
+     *
+     * @return Amount of written bytes.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        out.write(value);
+        count++;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        out.write(bytes, offset, length);
+        count += length;
+    }
+}
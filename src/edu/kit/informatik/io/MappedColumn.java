@@ -0,0 +1,166 @@
+package edu.kit.informatik.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class stores a column of fixed-width values in a memory-mapped file. The
+ * file is mapped in chunks, and a new chunk is mapped as soon as a value behind
+ * the last chunk is written, which grows the file. Values never span two chunks,
+ * since the width of a value divides the size of a chunk.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class MappedColumn implements Closeable {
+
+    private static final int CHUNK_BITS = 24;
+    private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final FileChannel channel;
+    private final int width;
+    private final List<MappedByteBuffer> chunks;
+
+    /**
+     * Opens a column file, which is created if it doesn't exist yet.
+     *
+     * @param path  Path of the column file.
+     * @param width Width of a value in bytes, which is 1, 2, 4 or 8.
+     * @throws IOException if the file can't be opened or mapped.
+     */
+    public MappedColumn(final Path path, final int width) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.width = width;
+        this.chunks = new ArrayList<>();
+        try {
+            while ((long) chunks.size() * CHUNK_SIZE < channel.size()) {
+                mapNextChunk();
+            }
+        } catch (IOException ioException) {
+            channel.close();
+            throw ioException;
+        }
+    }
+
+    /**
+     * Returns the amount of values which fit into the mapped chunks.
+     *
+     * @return Amount of values which can be read.
+     */
+    public long capacity() {
+        return chunks.size() * CHUNK_SIZE / width;
+    }
+
+    /**
+     * Returns the byte value in a row.
+     *
+     * @param row Row of the value.
+     * @return Byte value in the row.
+     */
+    public byte getByte(final long row) {
+        long position = row * width;
+        return chunkAt(position).get((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Writes a byte value into a row.
+     *
+     * @param row   Row of the value.
+     * @param value Byte value.
+     * @throws IOException if the file can't be grown.
+     */
+    public void putByte(final long row, final byte value) throws IOException {
+        long position = row * width;
+        growingChunkAt(position).put((int) (position & CHUNK_MASK), value);
+    }
+
+    /**
+     * Returns the integer value in a row.
+     *
+     * @param row Row of the value.
+     * @return Integer value in the row.
+     */
+    public int getInt(final long row) {
+        long position = row * width;
+        return chunkAt(position).getInt((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Writes an integer value into a row.
+     *
+     * @param row   Row of the value.
+     * @param value Integer value.
+     * @throws IOException if the file can't be grown.
+     */
+    public void putInt(final long row, final int value) throws IOException {
+        long position = row * width;
+        growingChunkAt(position).putInt((int) (position & CHUNK_MASK), value);
+    }
+
+    /**
+     * Returns the long value in a row.
+     *
+     * @param row Row of the value.
+     * @return Long value in the row.
+     */
+    public long getLong(final long row) {
+        long position = row * width;
+        return chunkAt(position).getLong((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Writes a long value into a row.
+     *
+     * @param row   Row of the value.
+     * @param value Long value.
+     * @throws IOException if the file can't be grown.
+     */
+    public void putLong(final long row, final long value) throws IOException {
+        long position = row * width;
+        growingChunkAt(position).putLong((int) (position & CHUNK_MASK), value);
+    }
+
+    /**
+     * Forces all written values to the storage device.
+     */
+    public void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Forces all written values to the storage device and closes the file.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private MappedByteBuffer chunkAt(final long position) {
+        return chunks.get((int) (position >>> CHUNK_BITS));
+    }
+
+    private MappedByteBuffer growingChunkAt(final long position) throws IOException {
+        int chunk = (int) (position >>> CHUNK_BITS);
+        while (chunk >= chunks.size()) {
+            mapNextChunk();
+        }
+        return chunks.get(chunk);
+    }
+
+    private void mapNextChunk() throws IOException {
+        // Mapping behind the end of the file grows the file
+        chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, chunks.size() * CHUNK_SIZE, CHUNK_SIZE));
+    }
+}
@@ -0,0 +1,125 @@
+package edu.kit.informatik.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class maps a whole file into memory for random access. Files of any size
+ * are mapped in consecutive segments, which are addressed by a single position
+ * within the file. Nothing is read from the file until a position is accessed.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class MappedFile {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final int BYTE_MASK = 0xFF;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    /**
+     * Maps a file into memory.
+     *
+     * @param path Path of the file which is going to be mapped.
+     * @throws IOException if the file can't be opened or mapped.
+     */
+    public MappedFile(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.size = channel.size();
+            this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the file.
+     *
+     * @return Size of the file in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the byte at a position.
+     *
+     * @param position Position within the file.
+     * @return Byte at the position.
+     */
+    public byte get(final long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+    }
+
+    /**
+     * Returns the big-endian integer starting at a position.
+     *
+     * @param position Position within the file.
+     * @return Integer starting at the position.
+     */
+    public int getInt(final long position) {
+        int offset = (int) (position & SEGMENT_MASK);
+        if (offset + Integer.BYTES <= SEGMENT_SIZE) {
+            return segments[(int) (position >>> SEGMENT_BITS)].getInt(offset);
+        }
+        // The integer spans two segments
+        int value = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            value = (value << Byte.SIZE) | (get(position + i) & BYTE_MASK);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the big-endian long starting at a position.
+     *
+     * @param position Position within the file.
+     * @return Long starting at the position.
+     */
+    public long getLong(final long position) {
+        return ((long) getInt(position) << Integer.SIZE) | (getInt(position + Integer.BYTES) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Opens a stream which reads the file sequentially, starting at a position.
+     *
+     * @param position Position within the file at which the stream starts.
+     * @return Stream which reads the file from the position on.
+     */
+    public InputStream openStream(final long position) {
+        return new InputStream() {
+            private long next = position;
+
+            @Override
+            public int read() {
+                return (next < size) ? (get(next++) & BYTE_MASK) : -1;
+            }
+
+            @Override
+            public int read(final byte[] bytes, final int offset, final int length) {
+                if (length == 0) {
+                    return 0;
+                }
+                if (next >= size) {
+                    return -1;
+                }
+                // Only the remainder of the current segment is read at once
+                MappedByteBuffer segment = segments[(int) (next >>> SEGMENT_BITS)];
+                int segmentOffset = (int) (next & SEGMENT_MASK);
+                int amount = Math.min(length, segment.limit() - segmentOffset);
+                segment.get(segmentOffset, bytes, offset, amount);
+                next += amount;
+                return amount;
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package edu.kit.informatik.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class reads the lines of a file by mapping it into memory and decoding
+ * the lines directly from the mapped buffer. Large files are mapped in
+ * consecutive windows, so that files of any size can be read.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class MappedLineReader implements Closeable {
+
+    private static final long WINDOW_SIZE = 1L << 26;
+    private static final int INITIAL_LINE_CAPACITY = 256;
+
+    private final FileChannel channel;
+    private final long size;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private byte[] line;
+
+    /**
+     * Opens a file and maps its first window into memory.
+     *
+     * @param path Path of the file which is going to be read.
+     * @throws IOException if the file can't be opened or mapped.
+     */
+    public MappedLineReader(final Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.line = new byte[INITIAL_LINE_CAPACITY];
+        map(0);
+    }
+
+    /**
+     * Reads the next line of the file. A line is terminated by a line feed, a
+     * carriage return or a carriage return followed by a line feed.
+     *
+     * @return The next line without its terminator or null, if the end of the
+     * file has been reached.
+     * @throws IOException if the next window of the file can't be mapped.
+     */
+    public String readLine() throws IOException {
+        if (!hasRemaining()) {
+            return null;
+        }
+        int length = 0;
+        while (hasRemaining()) {
+            byte character = window.get();
+            if (character == '\n') {
+                break;
+            }
+            if (character == '\r') {
+                if (hasRemaining() && window.get(window.position()) == '\n') {
+                    window.get();
+                }
+                break;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = character;
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean hasRemaining() throws IOException {
+        if (window.hasRemaining()) {
+            return true;
+        }
+        long nextWindow = windowStart + window.limit();
+        if (nextWindow >= size) {
+            return false;
+        }
+        map(nextWindow);
+        return true;
+    }
+
+    private void map(final long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+    }
+}
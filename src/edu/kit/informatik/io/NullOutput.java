@@ -0,0 +1,20 @@
+package edu.kit.informatik.io;
+
+/**
+ * This class discards every written line. It is meant for benchmarks, in which
+ * the cost of writing the responses shouldn't be measured.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class NullOutput implements Output {
+
+    @Override
+    public void println(final String line) {
+        // Discards the line
+    }
+
+    @Override
+    public void flush() {
+        // Nothing has been buffered
+    }
+}
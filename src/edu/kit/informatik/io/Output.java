@@ -0,0 +1,22 @@
+package edu.kit.informatik.io;
+
+/**
+ * This interface describes a sink for the responses of the olympic games
+ * administration, which are written line by line.
+ *
+ * @author Bjoern Holtvogt
+ */
+public interface Output {
+
+    /**
+     * Writes a line of text followed by a line separator.
+     *
+     * @param line Line of text which is going to be written.
+     */
+    void println(String line);
+
+    /**
+     * Writes all lines which have been buffered so far to their destination.
+     */
+    void flush();
+}
@@ -11,7 +11,6 @@ public class Administrator {
     private String surName;
     private String userName;
     private String passWord;
-    private boolean online;
 
     /**
      * Creates an administrator who can manage and archive records.
@@ -100,24 +99,6 @@ public class Administrator {
         this.passWord = passWord;
     }
 
-    /**
-     * Returns online state of an admin account.
-     *
-     * @return True, if the admin is online. False, if not.
-     */
-    public boolean isOnline() {
-        return online;
-    }
-
-    /**
-     * Sets online state of an admin account.
-     *
-     * @param online Online state of an admin account.
-     */
-    public void setOnline(final boolean online) {
-        this.online = online;
-    }
-
     @Override
     public int hashCode() {
         final int prime = 31;
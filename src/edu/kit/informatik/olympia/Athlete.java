@@ -1,29 +1,33 @@
 package edu.kit.informatik.olympia;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Comparator;
 
 /**
  * This class represents an athlete who participates in the Olympic Games.
+ * Competitions of the same athlete may be added concurrently, and are applied
+ * while holding the athlete's monitor.
  *
  * @author Bjoern Holtvogt
  */
-public class Athlete implements Comparable<Athlete> {
+public class Athlete {
+
+    // Marks a participated sport in addition to the bits of the competed Olympic Games
+    private static final int PARTICIPATING = 1 << 31;
+    private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
 
     private final IOC countryOfOrigin;
-    private final Set<Integer> participatedYears;
-    private final Map<Sports, Set<Integer>> participatedSports;
-    private final Map<Sports, Integer> medalTable;
 
-    private String athleteID;
+    // Both indexed by the ordinal of a sport
+    private int[] sportsMedals;
+    private int[] competedGames;
+
+    private int athleteID;
     private String foreName;
     private String surName;
     private int goldMedal;
     private int silverMedal;
     private int bronzeMedal;
-    private int currentMedals;
 
     /**
      * Creates an athlete profile who can participate and compete at various sports.
@@ -34,19 +38,16 @@ public class Athlete implements Comparable<Athlete> {
      * @param countryOfOrigin Athlete's country of origin.
      * @param sport           Participated sport.
      */
-    public Athlete(final String athleteID, final String foreName, final String surName, final IOC countryOfOrigin,
+    public Athlete(final int athleteID, final String foreName, final String surName, final IOC countryOfOrigin,
                    final Sports sport) {
 
         this.athleteID = athleteID;
         this.foreName = foreName;
         this.surName = surName;
-        this.currentMedals = -1;
         this.countryOfOrigin = countryOfOrigin;
-        this.participatedYears = new HashSet<>();
-        this.participatedSports = new HashMap<>();
-        this.participatedSports.put(sport, participatedYears);
-        this.medalTable = new HashMap<>();
-        this.medalTable.put(sport, 0);
+        this.sportsMedals = new int[sport.getOrdinal() + 1];
+        this.competedGames = new int[sport.getOrdinal() + 1];
+        participates(sport);
     }
 
     /**
@@ -54,7 +55,7 @@ public class Athlete implements Comparable<Athlete> {
      *
      * @return Athlete ID.
      */
-    public String getAthleteID() {
+    public int getAthleteID() {
         return athleteID;
     }
 
@@ -63,7 +64,7 @@ public class Athlete implements Comparable<Athlete> {
      *
      * @param athleteID Unique athlete ID.
      */
-    public void setAthleteID(final String athleteID) {
+    public void setAthleteID(final int athleteID) {
         this.athleteID = athleteID;
     }
 
@@ -167,24 +168,6 @@ public class Athlete implements Comparable<Athlete> {
         return countryOfOrigin.getCountryName();
     }
 
-    /**
-     * Returns the current amount of received medals of a certain sport.
-     *
-     * @return Current amount of received medals of a certain sport.
-     */
-    public int getCurrentMedals() {
-        return currentMedals;
-    }
-
-    /**
-     * Sets the current amount of received medals of a certain sport.
-     *
-     * @param currentMedals Current amount of received medals of a certain sport.
-     */
-    public void setCurrentMedals(final int currentMedals) {
-        this.currentMedals = currentMedals;
-    }
-
     /**
      * Returns the amount of received medals dependent on the sport.
      *
@@ -192,7 +175,7 @@ public class Athlete implements Comparable<Athlete> {
      * @return Amount of received medals dependent on the sport.
      */
     public int getSportsMedals(final Sports sport) {
-        return medalTable.get(sport);
+        return sportsMedals[sport.getOrdinal()];
     }
 
     /**
@@ -203,7 +186,7 @@ public class Athlete implements Comparable<Athlete> {
      * @param sportsMedals New amount of received medals.
      */
     public void setSportsMedal(final Sports sport, final int sportsMedals) {
-        medalTable.put(sport, sportsMedals);
+        this.sportsMedals[sport.getOrdinal()] = sportsMedals;
     }
 
     /**
@@ -212,8 +195,13 @@ public class Athlete implements Comparable<Athlete> {
      * @param otherSport Sport from which the athlete wants to participate.
      */
     public void participates(final Sports otherSport) {
-        Set<Integer> newYearSet = new HashSet<>();
-        this.participatedSports.put(otherSport, newYearSet);
+        int ordinal = otherSport.getOrdinal();
+        if (ordinal >= competedGames.length) {
+            sportsMedals = Arrays.copyOf(sportsMedals, ordinal + 1);
+            competedGames = Arrays.copyOf(competedGames, ordinal + 1);
+        }
+        sportsMedals[ordinal] = 0;
+        competedGames[ordinal] = PARTICIPATING;
     }
 
     /**
@@ -225,58 +213,138 @@ public class Athlete implements Comparable<Athlete> {
      * if not.
      */
     public boolean isParticipating(final Sports otherSport) {
-        return participatedSports.containsKey(otherSport);
+        int ordinal = otherSport.getOrdinal();
+        return ordinal < competedGames.length && (competedGames[ordinal] & PARTICIPATING) != 0;
     }
 
     /**
-     * Inserts the year in which the athlete has competed in an Olympic Games
-     * competition.
+     * Inserts the Olympic Games in which the athlete has competed in a sport the
+     * athlete participates in, together with the won medals, unless the athlete
+     * has already competed in the sport at these Olympic Games. The check and the
+     * insertion are atomic, so that the same competition can't be accepted twice
+     * even if it is added concurrently.
      *
-     * @param sport   Sport which the athlete has competed.
-     * @param newYear Year in which the athlete has competed.
+     * @param sport        Sport which the athlete has competed.
+     * @param gamesOrdinal Ordinal of the Olympic Games in which the athlete has
+     *                     competed.
+     * @param gold         Amount of won gold medals.
+     * @param silver       Amount of won silver medals.
+     * @param bronze       Amount of won bronze medals.
+     * @return True, if the competition has been inserted. False, if the athlete
+     * has already competed in the given sport and Olympic Games.
      */
-    public void competes(final Sports sport, final int newYear) {
-        Set<Integer> addedYearSet = new HashSet<>();
-        addedYearSet.addAll(participatedYears);
-        addedYearSet.add(newYear);
-        this.participatedSports.replace(sport, participatedYears, addedYearSet);
+    public synchronized boolean competes(final Sports sport, final int gamesOrdinal, final int gold,
+                                         final int silver, final int bronze) {
+        int ordinal = sport.getOrdinal();
+        if ((competedGames[ordinal] & (1 << gamesOrdinal)) != 0) {
+            return false;
+        }
+        competedGames[ordinal] |= (1 << gamesOrdinal);
+        sportsMedals[ordinal] += (gold + silver + bronze);
+        goldMedal += gold;
+        silverMedal += silver;
+        bronzeMedal += bronze;
+        return true;
     }
 
     /**
-     * Checks if an athlete has already competed in a year of an Olympic Games
-     * competition.
+     * Checks if an athlete has already competed in an Olympic Games competition of
+     * a sport the athlete participates in.
      *
-     * @param sport Sport which is checked if it has already been contested.
-     * @param year  Year in which the athlete might have already contested.
+     * @param sport        Sport which is checked if it has already been contested.
+     * @param gamesOrdinal Ordinal of the Olympic Games in which the athlete might
+     *                     have already contested.
      * @return True, if the athlete has already competed in the given sport and
-     * year. False, if not.
+     * Olympic Games. False, if not.
      */
-    public boolean hasCompeted(final Sports sport, final int year) {
-        return participatedSports.get(sport).contains(year);
+    public synchronized boolean hasCompeted(final Sports sport, final int gamesOrdinal) {
+        return (competedGames[sport.getOrdinal()] & (1 << gamesOrdinal)) != 0;
     }
 
-    @Override
-    public int compareTo(final Athlete athlete) {
-        if (this.getCurrentMedals() > athlete.getCurrentMedals()) {
-            return -1;
-        } else if (this.getCurrentMedals() < athlete.getCurrentMedals()) {
-            return 1;
-        } else {
-            if (Integer.valueOf(this.getAthleteID()) > Integer.valueOf(athlete.getAthleteID())) {
-                return 1;
-            } else if (Integer.valueOf(this.getAthleteID()) < Integer.valueOf(athlete.getAthleteID())) {
-                return -1;
-            } else {
-                return 0;
-            }
+    /**
+     * Returns the amount of sport slots, which is one more than the highest
+     * ordinal of a sport the athlete has ever participated in.
+     *
+     * @return Amount of sport slots.
+     */
+    int getSportsSlots() {
+        return competedGames.length;
+    }
+
+    /**
+     * Returns the amount of received medals in the sport with the given ordinal.
+     *
+     * @param ordinal Ordinal of the sport.
+     * @return Amount of received medals in the sport.
+     */
+    int getSportsMedals(final int ordinal) {
+        return sportsMedals[ordinal];
+    }
+
+    /**
+     * Returns the participation mark and the competed Olympic Games of the sport
+     * with the given ordinal.
+     *
+     * @param ordinal Ordinal of the sport.
+     * @return Participation mark and bits of the competed Olympic Games, or 0 if
+     * the athlete doesn't participate in the sport.
+     */
+    int getCompetedGames(final int ordinal) {
+        return competedGames[ordinal];
+    }
+
+    /**
+     * Returns the competed Olympic Games of the sport with the given ordinal,
+     * without the participation mark.
+     *
+     * @param ordinal Ordinal of the sport.
+     * @return Bits of the competed Olympic Games, indexed by their ordinal.
+     */
+    int getGamesBits(final int ordinal) {
+        return competedGames[ordinal] & ~PARTICIPATING;
+    }
+
+    /**
+     * Restores the medals, the participation mark and the competed Olympic Games
+     * of a sport, as they have been returned before.
+     *
+     * @param ordinal       Ordinal of the sport.
+     * @param sportsMedals  Amount of received medals in the sport.
+     * @param competedGames Participation mark and bits of the competed Olympic
+     *                      Games.
+     */
+    void restoreSport(final int ordinal, final int sportsMedals, final int competedGames) {
+        if (ordinal >= this.competedGames.length) {
+            this.sportsMedals = Arrays.copyOf(this.sportsMedals, ordinal + 1);
+            this.competedGames = Arrays.copyOf(this.competedGames, ordinal + 1);
         }
+        this.sportsMedals[ordinal] = sportsMedals;
+        this.competedGames[ordinal] = competedGames;
+    }
+
+    /**
+     * Returns the order of a leaderboard of a sport. Athletes are sorted by the
+     * number of medals won in the sport in descending order. If equal, the ID is
+     * sorted in ascending order.
+     *
+     * @param sport Sport whose medals are compared.
+     * @return Order of the athletes participating in the given sport.
+     */
+    public static Comparator<Athlete> leaderboardOrder(final Sports sport) {
+        return (first, second) -> Long.compare(second.leaderboardKey(sport), first.leaderboardKey(sport));
+    }
+
+    private long leaderboardKey(final Sports sport) {
+        // Medals in the upper and the inverted athlete ID in the lower half, so that
+        // the key is compared in descending order
+        return ((long) sportsMedals[sport.getOrdinal()] << Integer.SIZE) | (~athleteID & UNSIGNED_INT_MASK);
     }
 
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((athleteID == null) ? 0 : athleteID.hashCode());
+        result = prime * result + athleteID;
         return result;
     }
 
@@ -289,11 +357,6 @@ public class Athlete implements Comparable<Athlete> {
         if (getClass() != obj.getClass())
             return false;
         Athlete other = (Athlete) obj;
-        if (athleteID == null) {
-            if (other.athleteID != null)
-                return false;
-        } else if (!athleteID.equals(other.athleteID))
-            return false;
-        return true;
+        return athleteID == other.athleteID;
     }
 }
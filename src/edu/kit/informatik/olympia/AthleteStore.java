@@ -0,0 +1,140 @@
+package edu.kit.informatik.olympia;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class stores the athletes keyed by their numeric athlete ID. It is an
+ * open-addressing hash table with linear probing, so that looking up an athlete
+ * neither boxes the ID nor compares any text.
+ *
+ * @author Bjoern Holtvogt
+ */
+public class AthleteStore implements Iterable<Athlete> {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    private int[] athleteIDs;
+    private Athlete[] athletes;
+    private int size;
+
+    /**
+     * Creates an empty athlete store.
+     */
+    public AthleteStore() {
+        this.athleteIDs = new int[INITIAL_CAPACITY];
+        this.athletes = new Athlete[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the athlete with the given ID.
+     *
+     * @param athleteID Unique athlete ID.
+     * @return Athlete with the given ID or null, if no such athlete exists.
+     */
+    public Athlete get(final int athleteID) {
+        int mask = athletes.length - 1;
+        for (int slot = slotOf(athleteID, mask); athletes[slot] != null; slot = (slot + 1) & mask) {
+            if (athleteIDs[slot] == athleteID) {
+                return athletes[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds an athlete, whose ID mustn't be stored yet.
+     *
+     * @param athlete New athlete.
+     */
+    public void add(final Athlete athlete) {
+        // The table is kept at most half full, so that probe sequences stay short
+        if ((size + 1) * 2 > athletes.length) {
+            resize(athletes.length * 2);
+        }
+        insert(athlete.getAthleteID(), athlete);
+        size++;
+    }
+
+    /**
+     * Returns the amount of stored athletes.
+     *
+     * @return Amount of stored athletes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns an iterator over all stored athletes in no particular order.
+     *
+     * @return Iterator over all stored athletes.
+     */
+    @Override
+    public Iterator<Athlete> iterator() {
+        return new Iterator<>() {
+            private int slot = nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return slot < athletes.length;
+            }
+
+            @Override
+            public Athlete next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Athlete athlete = athletes[slot];
+                slot = nextSlot(slot + 1);
+                return athlete;
+            }
+        };
+    }
+
+    /**
+     * Removes all stored athletes.
+     */
+    public void clear() {
+        Arrays.fill(athletes, null);
+        size = 0;
+    }
+
+    private int nextSlot(final int from) {
+        int slot = from;
+        while (slot < athletes.length && athletes[slot] == null) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private void insert(final int athleteID, final Athlete athlete) {
+        int mask = athletes.length - 1;
+        int slot = slotOf(athleteID, mask);
+        while (athletes[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        athleteIDs[slot] = athleteID;
+        athletes[slot] = athlete;
+    }
+
+    private void resize(final int capacity) {
+        int[] oldAthleteIDs = athleteIDs;
+        Athlete[] oldAthletes = athletes;
+        athleteIDs = new int[capacity];
+        athletes = new Athlete[capacity];
+        for (int i = 0; i < oldAthletes.length; i++) {
+            if (oldAthletes[i] != null) {
+                insert(oldAthleteIDs[i], oldAthletes[i]);
+            }
+        }
+    }
+
+    private static int slotOf(final int athleteID, final int mask) {
+        // Spreads consecutive IDs over the whole table
+        int hash = athleteID * GOLDEN_RATIO;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
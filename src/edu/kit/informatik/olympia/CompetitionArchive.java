@@ -0,0 +1,489 @@
+package edu.kit.informatik.olympia;
+
+import edu.kit.informatik.io.CountingOutputStream;
+import edu.kit.informatik.io.MappedFile;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * This class is a compressed, read-only archive of the athletes and the whole
+ * competition history, meant to be kept cold and copied between hosts. Athletes
+ * and competitions are sorted by athlete ID and grouped into blocks. Within a
+ * block, every athlete ID is stored as the varint difference to the one before,
+ * and the Olympic Games and the medal of a competition are packed into a single
+ * byte. The country of origin is only stored when the athlete changes.
+ * <p>
+ * The archive starts with a magic number, its version and the IOC codes and
+ * sports its ordinals refer to. It ends with an index of both kinds of blocks,
+ * the positions of both indexes and a checksum of everything before. A scan
+ * decodes one block at a time and hands out its fields without creating any
+ * objects for them.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class CompetitionArchive {
+
+    private static final int MAGIC = 0x4F474341;
+    private static final int VERSION = 1;
+    private static final int ATHLETES_PER_BLOCK = 256;
+    private static final int COMPETITIONS_PER_BLOCK = 4096;
+    private static final int BLOCK_INDEX_ENTRY_SIZE = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int TRAILER_SIZE = 2 * Long.BYTES + Integer.BYTES;
+    private static final int MEDAL_BITS = 2;
+    private static final int MEDAL_MASK = (1 << MEDAL_BITS) - 1;
+    private static final int VARINT_PAYLOAD = 0x7F;
+    private static final int VARINT_CONTINUATION = 0x80;
+    private static final int VARINT_SHIFT = 7;
+    private static final int BYTE_MASK = 0xFF;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final MappedFile file;
+    private final String[] countryCodes;
+    private final Sports[] sports;
+    private final long athleteIndex;
+    private final long competitionIndex;
+    private byte[] block;
+    private int position;
+
+    /**
+     * Opens an archive file by mapping it into memory. Only the IOC codes and
+     * sports are decoded right away.
+     *
+     * @param path Path of the archive file.
+     * @throws IOException if the archive file can't be read or has an unknown
+     *                     format.
+     */
+    public CompetitionArchive(final Path path) throws IOException {
+        this.file = new MappedFile(path);
+        if (file.size() < 2 * Integer.BYTES + TRAILER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException(path + " isn't a competition archive.");
+        }
+        int version = file.getInt(Integer.BYTES);
+        if (version != VERSION) {
+            throw new IOException("archive version " + version + " isn't supported.");
+        }
+        DataInputStream input = new DataInputStream(file.openStream(2 * Integer.BYTES));
+        try {
+            this.countryCodes = new String[input.readInt()];
+            for (int i = 0; i < countryCodes.length; i++) {
+                countryCodes[i] = Snapshot.readString(input);
+            }
+            this.sports = new Sports[input.readInt()];
+            for (int i = 0; i < sports.length; i++) {
+                sports[i] = new Sports(Snapshot.readString(input), Snapshot.readString(input), i);
+            }
+        } catch (EOFException | RuntimeException exception) {
+            throw new IOException("archive " + path + " is damaged.");
+        }
+        long trailer = file.size() - TRAILER_SIZE;
+        this.athleteIndex = file.getLong(trailer);
+        this.competitionIndex = file.getLong(trailer + Long.BYTES);
+        if (athleteIndex < 0 || athleteIndex > competitionIndex || competitionIndex > trailer) {
+            throw new IOException("archive " + path + " is damaged.");
+        }
+        this.block = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Writes the athletes of the Olympic Games and all competitions of a
+     * competition store to an archive file. The archive is written to a temporary
+     * file first, which replaces the archive file once it is complete.
+     *
+     * @param path             Path of the archive file.
+     * @param olympicGames     Olympic Games whose athletes are written.
+     * @param competitionStore Competition store whose competitions are written.
+     * @throws IOException if the archive file can't be written.
+     */
+    static void write(final Path path, final OlympicGames olympicGames, final CompetitionStore competitionStore)
+            throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + TEMPORARY_SUFFIX);
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, BUFFER_SIZE),
+                    new CRC32());
+            CountingOutputStream counting = new CountingOutputStream(checked);
+            DataOutputStream output = new DataOutputStream(counting);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            Map<String, Integer> countryOrdinals = new HashMap<>();
+            output.writeInt(olympicGames.getCountryCount());
+            for (int ordinal = 0; ordinal < olympicGames.getCountryCount(); ordinal++) {
+                IOC ioc = olympicGames.getCountry(ordinal);
+                countryOrdinals.put(ioc.getCountryName(), ordinal);
+                Snapshot.writeString(output, ioc.getIocCode());
+            }
+            output.writeInt(olympicGames.getSportsCount());
+            for (int ordinal = 0; ordinal < olympicGames.getSportsCount(); ordinal++) {
+                Sports sport = olympicGames.getSport(ordinal);
+                Snapshot.writeString(output, sport.getSport());
+                Snapshot.writeString(output, sport.getDiscipline());
+            }
+            ByteArrayOutputStream athleteBlocks = new ByteArrayOutputStream();
+            writeAthletes(counting, new DataOutputStream(athleteBlocks), olympicGames.getSortedAthletes(),
+                    countryOrdinals);
+            ByteArrayOutputStream competitionBlocks = new ByteArrayOutputStream();
+            writeCompetitions(counting, new DataOutputStream(competitionBlocks), competitionStore);
+            // Both block indexes follow the blocks, so that each of them ends where the next part starts
+            long athleteIndex = counting.getCount();
+            athleteBlocks.writeTo(output);
+            long competitionIndex = counting.getCount();
+            competitionBlocks.writeTo(output);
+            output.writeLong(athleteIndex);
+            output.writeLong(competitionIndex);
+            output.writeInt((int) checked.getChecksum().getValue());
+            output.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the amount of IOC codes the country ordinals of the archive refer to.
+     *
+     * @return Amount of IOC codes.
+     */
+    public int getCountryCount() {
+        return countryCodes.length;
+    }
+
+    /**
+     * Returns the IOC code with the given ordinal.
+     *
+     * @param ordinal Ordinal of the IOC code.
+     * @return IOC code with the ordinal.
+     */
+    public String getCountryCode(final int ordinal) {
+        return countryCodes[ordinal];
+    }
+
+    /**
+     * Returns the amount of sports the sport ordinals of the archive refer to.
+     *
+     * @return Amount of sports.
+     */
+    public int getSportsCount() {
+        return sports.length;
+    }
+
+    /**
+     * Returns the sport tuple with the given ordinal.
+     *
+     * @param ordinal Ordinal of the sport.
+     * @return Sport tuple with the ordinal.
+     */
+    public Sports getSport(final int ordinal) {
+        return sports[ordinal];
+    }
+
+    /**
+     * Checks the whole archive against its checksum, which is worth doing once
+     * after the archive has been copied.
+     *
+     * @throws IOException if the archive is damaged.
+     */
+    public void verify() throws IOException {
+        long checkedSize = file.size() - Integer.BYTES;
+        try (CheckedInputStream stream = new CheckedInputStream(file.openStream(0), new CRC32())) {
+            long remaining = checkedSize;
+            while (remaining > 0) {
+                remaining -= stream.read(block, 0, (int) Math.min(block.length, remaining));
+            }
+            if ((int) stream.getChecksum().getValue() != file.getInt(checkedSize)) {
+                throw new IOException("archive is damaged.");
+            }
+        }
+    }
+
+    /**
+     * Hands out every competition of the archive, in ascending order of the athlete
+     * IDs. The competitions of an athlete keep the order they were accepted in.
+     *
+     * @param visitor Visitor which receives every competition.
+     */
+    public void scanCompetitions(final CompetitionVisitor visitor) {
+        int blocks = blockCount(competitionIndex, file.size() - TRAILER_SIZE);
+        for (int i = 0; i < blocks; i++) {
+            scanCompetitionBlock(i, visitor, -1);
+        }
+    }
+
+    /**
+     * Hands out the competitions of a single athlete. Only the blocks which may
+     * contain the athlete are decoded.
+     *
+     * @param athleteID Unique athlete ID.
+     * @param visitor   Visitor which receives every competition of the athlete.
+     */
+    public void scanCompetitions(final int athleteID, final CompetitionVisitor visitor) {
+        long end = file.size() - TRAILER_SIZE;
+        int blocks = blockCount(competitionIndex, end);
+        // The competitions of an athlete may continue in the following blocks
+        for (int i = Math.max(0, firstBlockFrom(competitionIndex, blocks, athleteID) - 1);
+             i < blocks && firstIDOf(competitionIndex, i) <= athleteID; i++) {
+            scanCompetitionBlock(i, visitor, athleteID);
+        }
+    }
+
+    /**
+     * Hands out every sport every athlete of the archive participates in, in
+     * ascending order of the athlete IDs.
+     *
+     * @param visitor Visitor which receives every participation.
+     */
+    public void scanParticipations(final ParticipationVisitor visitor) {
+        int blocks = blockCount(athleteIndex, competitionIndex);
+        for (int i = 0; i < blocks; i++) {
+            int athletes = loadBlock(athleteIndex, i);
+            int athleteID = firstIDOf(athleteIndex, i);
+            for (int j = 0; j < athletes; j++) {
+                athleteID += readVarint();
+                int countryOrdinal = readVarint();
+                skipString();
+                skipString();
+                int participations = readVarint();
+                int sportOrdinal = 0;
+                for (int k = 0; k < participations; k++) {
+                    sportOrdinal += readVarint();
+                    visitor.visit(athleteID, countryOrdinal, sportOrdinal, readVarint(), readVarint());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the name of an athlete of the archive.
+     *
+     * @param athleteID Unique athlete ID.
+     * @return Forename and surname of the athlete or null, if the archive doesn't
+     * contain such an athlete.
+     */
+    public String getAthleteName(final int athleteID) {
+        int blocks = blockCount(athleteIndex, competitionIndex);
+        int i = firstBlockFrom(athleteIndex, blocks, athleteID);
+        if (i == blocks || firstIDOf(athleteIndex, i) != athleteID) {
+            i--;
+        }
+        if (i < 0) {
+            return null;
+        }
+        int athletes = loadBlock(athleteIndex, i);
+        int currentID = firstIDOf(athleteIndex, i);
+        for (int j = 0; j < athletes; j++) {
+            currentID += readVarint();
+            readVarint();
+            if (currentID == athleteID) {
+                return readString() + " " + readString();
+            }
+            skipString();
+            skipString();
+            int participations = readVarint();
+            for (int k = 0; k < 3 * participations; k++) {
+                readVarint();
+            }
+        }
+        return null;
+    }
+
+    private static void writeAthletes(final CountingOutputStream output, final DataOutputStream blockIndex,
+                                      final Athlete[] athletes, final Map<String, Integer> countryOrdinals)
+            throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        for (int first = 0; first < athletes.length; first += ATHLETES_PER_BLOCK) {
+            int last = Math.min(athletes.length, first + ATHLETES_PER_BLOCK);
+            int previousID = athletes[first].getAthleteID();
+            for (int i = first; i < last; i++) {
+                Athlete athlete = athletes[i];
+                writeVarint(encoded, athlete.getAthleteID() - previousID);
+                writeVarint(encoded, countryOrdinals.get(athlete.getCountryOfOrigin()));
+                writeString(encoded, athlete.getForeName());
+                writeString(encoded, athlete.getSurName());
+                int participations = 0;
+                for (int ordinal = 0; ordinal < athlete.getSportsSlots(); ordinal++) {
+                    if (athlete.getCompetedGames(ordinal) != 0) {
+                        participations++;
+                    }
+                }
+                writeVarint(encoded, participations);
+                int previousOrdinal = 0;
+                for (int ordinal = 0; ordinal < athlete.getSportsSlots(); ordinal++) {
+                    if (athlete.getCompetedGames(ordinal) != 0) {
+                        writeVarint(encoded, ordinal - previousOrdinal);
+                        writeVarint(encoded, athlete.getSportsMedals(ordinal));
+                        writeVarint(encoded, athlete.getGamesBits(ordinal));
+                        previousOrdinal = ordinal;
+                    }
+                }
+                previousID = athlete.getAthleteID();
+            }
+            writeBlock(output, blockIndex, encoded, athletes[first].getAthleteID(), last - first);
+        }
+    }
+
+    private static void writeCompetitions(final CountingOutputStream output, final DataOutputStream blockIndex,
+                                          final CompetitionStore competitionStore) throws IOException {
+        long size = competitionStore.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("competition store is too large to be archived.");
+        }
+        // Sorting by athlete ID first and row second keeps the order in which the competitions were accepted
+        long[] keys = new long[(int) size];
+        for (int row = 0; row < keys.length; row++) {
+            keys[row] = ((long) competitionStore.getAthleteID(row) << Integer.SIZE) | row;
+        }
+        Arrays.sort(keys);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        for (int first = 0; first < keys.length; first += COMPETITIONS_PER_BLOCK) {
+            int last = Math.min(keys.length, first + COMPETITIONS_PER_BLOCK);
+            int firstID = (int) (keys[first] >> Integer.SIZE);
+            int previousID = firstID;
+            for (int i = first; i < last; i++) {
+                int row = (int) keys[i];
+                int athleteID = (int) (keys[i] >> Integer.SIZE);
+                writeVarint(encoded, athleteID - previousID);
+                // The country of origin only changes along with the athlete
+                if (i == first || athleteID != previousID) {
+                    writeVarint(encoded, competitionStore.getCountryOrdinal(row));
+                }
+                writeVarint(encoded, competitionStore.getSportOrdinal(row));
+                encoded.write((competitionStore.getGamesOrdinal(row) << MEDAL_BITS) | competitionStore.getMedal(row));
+                previousID = athleteID;
+            }
+            writeBlock(output, blockIndex, encoded, firstID, last - first);
+        }
+    }
+
+    private static void writeBlock(final CountingOutputStream output, final DataOutputStream blockIndex,
+                                   final ByteArrayOutputStream encoded, final int firstID, final int records)
+            throws IOException {
+        blockIndex.writeInt(firstID);
+        blockIndex.writeInt(records);
+        blockIndex.writeLong(output.getCount());
+        blockIndex.writeInt(encoded.size());
+        encoded.writeTo(output);
+        encoded.reset();
+    }
+
+    private static void writeVarint(final ByteArrayOutputStream output, final int value) {
+        int remaining = value;
+        while ((remaining & ~VARINT_PAYLOAD) != 0) {
+            output.write((remaining & VARINT_PAYLOAD) | VARINT_CONTINUATION);
+            remaining >>>= VARINT_SHIFT;
+        }
+        output.write(remaining);
+    }
+
+    private static void writeString(final ByteArrayOutputStream output, final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(output, bytes.length);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    private void scanCompetitionBlock(final int index, final CompetitionVisitor visitor, final int wantedID) {
+        int competitions = loadBlock(competitionIndex, index);
+        int athleteID = firstIDOf(competitionIndex, index);
+        int countryOrdinal = 0;
+        for (int i = 0; i < competitions; i++) {
+            int delta = readVarint();
+            athleteID += delta;
+            if (i == 0 || delta != 0) {
+                countryOrdinal = readVarint();
+            }
+            int sportOrdinal = readVarint();
+            int packed = block[position++] & BYTE_MASK;
+            if (wantedID < 0 || athleteID == wantedID) {
+                visitor.visit(athleteID, packed >>> MEDAL_BITS, countryOrdinal, sportOrdinal,
+                        (byte) (packed & MEDAL_MASK));
+            }
+        }
+    }
+
+    private int blockCount(final long index, final long end) {
+        return (int) ((end - index) / BLOCK_INDEX_ENTRY_SIZE);
+    }
+
+    private int firstIDOf(final long index, final int block) {
+        return file.getInt(index + (long) block * BLOCK_INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * Returns the first block whose first athlete ID isn't lower than the given
+     * one, or the amount of blocks if there is no such block.
+     */
+    private int firstBlockFrom(final long index, final int blocks, final int athleteID) {
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (firstIDOf(index, middle) < athleteID) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copies an encoded block out of the mapping and returns its amount of records.
+     */
+    private int loadBlock(final long index, final int blockNumber) {
+        long entry = index + (long) blockNumber * BLOCK_INDEX_ENTRY_SIZE;
+        long offset = file.getLong(entry + 2 * Integer.BYTES);
+        int length = file.getInt(entry + 2 * Integer.BYTES + Long.BYTES);
+        if (length > block.length) {
+            block = new byte[length];
+        }
+        InputStream stream = file.openStream(offset);
+        try {
+            for (int read = 0; read < length; ) {
+                read += stream.read(block, read, length - read);
+            }
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+        position = 0;
+        return file.getInt(entry + Integer.BYTES);
+    }
+
+    private int readVarint() {
+        int value = 0;
+        int shift = 0;
+        int next;
+        do {
+            next = block[position++];
+            value |= (next & VARINT_PAYLOAD) << shift;
+            shift += VARINT_SHIFT;
+        } while ((next & VARINT_CONTINUATION) != 0);
+        return value;
+    }
+
+    private String readString() {
+        int length = readVarint();
+        String value = new String(block, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private void skipString() {
+        int length = readVarint();
+        position += length;
+    }
+}
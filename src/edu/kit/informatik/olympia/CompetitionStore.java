@@ -0,0 +1,203 @@
+package edu.kit.informatik.olympia;
+
+import edu.kit.informatik.io.MappedColumn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class stores every accepted competition as a row of an append-only,
+ * columnar store. Each column lives in its own memory-mapped file, so that an
+ * aggregation only scans the columns it needs, sequentially and without any
+ * athlete objects. The row of a competition is the amount of competitions which
+ * have been accepted before it.
+ * <p>
+ * The amount of rows is kept in a header file, which only maps this single
+ * number instead of growing in chunks like the columns. It is only guaranteed to
+ * be durable after the store has been forced, which happens at every checkpoint.
+ * Rows behind the last checkpoint are rebuilt by the write-ahead log.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class CompetitionStore implements Closeable {
+
+    /**
+     * Medal column value of a competition without any medal.
+     */
+    public static final byte NO_MEDAL = 0;
+
+    /**
+     * Medal column value of a competition which was won with a gold medal.
+     */
+    public static final byte GOLD = 1;
+
+    /**
+     * Medal column value of a competition which was won with a silver medal.
+     */
+    public static final byte SILVER = 2;
+
+    /**
+     * Medal column value of a competition which was won with a bronze medal.
+     */
+    public static final byte BRONZE = 3;
+
+    private final FileChannel headerChannel;
+    private final MappedByteBuffer header;
+    private final MappedColumn athleteIDs;
+    private final MappedColumn gamesOrdinals;
+    private final MappedColumn countryOrdinals;
+    private final MappedColumn sportOrdinals;
+    private final MappedColumn medals;
+
+    private long size;
+
+    /**
+     * Opens the store in a directory, which is created if it doesn't exist yet.
+     *
+     * @param directory Directory of the column files.
+     * @throws IOException if the column files can't be opened.
+     */
+    public CompetitionStore(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.headerChannel = FileChannel.open(directory.resolve("rows.col"), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Headers of older stores were mapped as a whole chunk, of which only the first number is kept
+        if (headerChannel.size() > Long.BYTES) {
+            headerChannel.truncate(Long.BYTES);
+        }
+        this.header = headerChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        this.athleteIDs = new MappedColumn(directory.resolve("athlete.col"), Integer.BYTES);
+        this.gamesOrdinals = new MappedColumn(directory.resolve("games.col"), Integer.BYTES);
+        this.countryOrdinals = new MappedColumn(directory.resolve("country.col"), Integer.BYTES);
+        this.sportOrdinals = new MappedColumn(directory.resolve("sport.col"), Integer.BYTES);
+        this.medals = new MappedColumn(directory.resolve("medal.col"), Byte.BYTES);
+        // A torn header can't claim more rows than any column holds
+        long rows = header.getLong(0);
+        this.size = Math.max(0, Math.min(rows, Math.min(Math.min(athleteIDs.capacity(), gamesOrdinals.capacity()),
+                Math.min(Math.min(countryOrdinals.capacity(), sportOrdinals.capacity()), medals.capacity()))));
+    }
+
+    /**
+     * Returns the amount of stored competitions.
+     *
+     * @return Amount of stored competitions.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Appends a competition as a new row. Competitions which are appended
+     * concurrently are stored in the order in which they get hold of the store.
+     *
+     * @param athleteID      Unique athlete ID.
+     * @param gamesOrdinal   Ordinal of the Olympic Games.
+     * @param countryOrdinal Ordinal of the athlete's country of origin.
+     * @param sportOrdinal   Ordinal of the sport.
+     * @param medal          Won medal, which is one of the medal column values.
+     */
+    synchronized void append(final int athleteID, final int gamesOrdinal, final int countryOrdinal,
+                             final int sportOrdinal, final byte medal) {
+        try {
+            athleteIDs.putInt(size, athleteID);
+            gamesOrdinals.putInt(size, gamesOrdinal);
+            countryOrdinals.putInt(size, countryOrdinal);
+            sportOrdinals.putInt(size, sportOrdinal);
+            medals.putByte(size, medal);
+            size++;
+            header.putLong(0, size);
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    /**
+     * Drops all rows behind the given amount of rows.
+     *
+     * @param rows Amount of rows which are kept.
+     */
+    synchronized void truncate(final long rows) {
+        size = rows;
+        header.putLong(0, size);
+    }
+
+    /**
+     * Returns the athlete ID of a competition.
+     *
+     * @param row Row of the competition.
+     * @return Athlete ID of the competition.
+     */
+    public int getAthleteID(final long row) {
+        return athleteIDs.getInt(row);
+    }
+
+    /**
+     * Returns the ordinal of the Olympic Games of a competition.
+     *
+     * @param row Row of the competition.
+     * @return Ordinal of the Olympic Games of the competition.
+     */
+    public int getGamesOrdinal(final long row) {
+        return gamesOrdinals.getInt(row);
+    }
+
+    /**
+     * Returns the ordinal of the athlete's country of origin of a competition.
+     *
+     * @param row Row of the competition.
+     * @return Ordinal of the IOC country code of the competition.
+     */
+    public int getCountryOrdinal(final long row) {
+        return countryOrdinals.getInt(row);
+    }
+
+    /**
+     * Returns the ordinal of the sport of a competition.
+     *
+     * @param row Row of the competition.
+     * @return Ordinal of the sport of the competition.
+     */
+    public int getSportOrdinal(final long row) {
+        return sportOrdinals.getInt(row);
+    }
+
+    /**
+     * Returns the medal of a competition.
+     *
+     * @param row Row of the competition.
+     * @return Medal of the competition, which is one of the medal column values.
+     */
+    public byte getMedal(final long row) {
+        return medals.getByte(row);
+    }
+
+    /**
+     * Forces all rows and their amount to the storage device.
+     */
+    public void force() {
+        athleteIDs.force();
+        gamesOrdinals.force();
+        countryOrdinals.force();
+        sportOrdinals.force();
+        medals.force();
+        // The amount is forced last, so that it never claims rows which aren't durable
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        headerChannel.close();
+        athleteIDs.close();
+        gamesOrdinals.close();
+        countryOrdinals.close();
+        sportOrdinals.close();
+        medals.close();
+    }
+}
@@ -0,0 +1,23 @@
+package edu.kit.informatik.olympia;
+
+/**
+ * This interface receives the competitions of a scan over a competition archive,
+ * field by field, so that no object is created for a competition.
+ *
+ * @author Bjoern Holtvogt
+ */
+@FunctionalInterface
+public interface CompetitionVisitor {
+
+    /**
+     * Receives a competition.
+     *
+     * @param athleteID      Unique athlete ID.
+     * @param gamesOrdinal   Ordinal of the Olympic Games.
+     * @param countryOrdinal Ordinal of the athlete's country of origin.
+     * @param sportOrdinal   Ordinal of the sport.
+     * @param medal          Won medal, which is one of the medal column values of
+     *                       the competition store.
+     */
+    void visit(int athleteID, int gamesOrdinal, int countryOrdinal, int sportOrdinal, byte medal);
+}
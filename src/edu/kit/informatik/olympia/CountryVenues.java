@@ -0,0 +1,64 @@
+package edu.kit.informatik.olympia;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This class represents the sports venues of a single country, which are kept
+ * in ascending order of their amount of seats and their venue ID. It also keeps
+ * running totals of the venues of the country.
+ *
+ * @author Bjoern Holtvogt
+ */
+public class CountryVenues {
+
+    private final Set<Venue> venues;
+
+    private long totalSeats;
+
+    /**
+     * Creates an empty set of sports venues of a country.
+     */
+    public CountryVenues() {
+        this.venues = new TreeSet<>();
+    }
+
+    /**
+     * Adds a sports venue of the country.
+     *
+     * @param venue New sports venue of the country.
+     */
+    public void add(final Venue venue) {
+        venues.add(venue);
+        totalSeats += venue.getAmountOfSeats();
+    }
+
+    /**
+     * Returns the sports venues of the country in ascending order of their amount
+     * of seats and their venue ID.
+     *
+     * @return Unmodifiable view of the sports venues of the country.
+     */
+    public Set<Venue> getVenues() {
+        return Collections.unmodifiableSet(venues);
+    }
+
+    /**
+     * Returns the amount of sports venues of the country.
+     *
+     * @return Amount of sports venues of the country.
+     */
+    public int getVenueCount() {
+        return venues.size();
+    }
+
+    /**
+     * Returns the total amount of seats of all sports venues of the country.
+     *
+     * @return Total amount of seats of all sports venues of the country.
+     */
+    public long getTotalSeats() {
+        return totalSeats;
+    }
+}
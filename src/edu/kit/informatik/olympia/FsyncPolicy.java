@@ -0,0 +1,27 @@
+package edu.kit.informatik.olympia;
+
+/**
+ * This enum describes when the records of the write-ahead log are forced to the
+ * storage device.
+ *
+ * @author Bjoern Holtvogt
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Every record is forced to the storage device before its response is given.
+     */
+    ALWAYS,
+
+    /**
+     * All records since the last commit are forced together, before the collected
+     * responses are passed on.
+     */
+    BATCH,
+
+    /**
+     * Records are passed to the operating system, but never forced to the storage
+     * device.
+     */
+    NEVER
+}
@@ -8,10 +8,14 @@ package edu.kit.informatik.olympia;
  */
 public class IOC implements Comparable<IOC> {
 
-    private String iocID;
+    private final int ordinal;
+
+    private int iocID;
     private String iocCode;
     private String countryName;
-    private String yearOfDetermination;
+    private int yearOfDetermination;
+    // Year of determination in the upper and IOC ID in the lower half
+    private long sortKey;
 
     /**
      * Creates an IOC country code.
@@ -21,12 +25,26 @@ public class IOC implements Comparable<IOC> {
      * @param countryName         Unique country name.
      * @param yearOfDetermination Year in which the International Olympic Committee
      *                            determined the IOC country code.
+     * @param ordinal             Dense ordinal of the IOC country code, which is
+     *                            the amount of codes registered before it.
      */
-    public IOC(final String iocID, final String iocCode, final String countryName, final String yearOfDetermination) {
+    public IOC(final int iocID, final String iocCode, final String countryName, final int yearOfDetermination,
+               final int ordinal) {
         this.iocID = iocID;
         this.iocCode = iocCode;
         this.countryName = countryName;
         this.yearOfDetermination = yearOfDetermination;
+        this.ordinal = ordinal;
+        updateSortKey();
+    }
+
+    /**
+     * Returns the dense ordinal of the IOC country code.
+     *
+     * @return Ordinal of the IOC country code.
+     */
+    public int getOrdinal() {
+        return ordinal;
     }
 
     /**
@@ -34,7 +52,7 @@ public class IOC implements Comparable<IOC> {
      *
      * @return IOC ID.
      */
-    public String getIocID() {
+    public int getIocID() {
         return iocID;
     }
 
@@ -43,8 +61,9 @@ public class IOC implements Comparable<IOC> {
      *
      * @param iocID Unique IOC ID.
      */
-    public void setIocID(final String iocID) {
+    public void setIocID(final int iocID) {
         this.iocID = iocID;
+        updateSortKey();
     }
 
     /**
@@ -88,7 +107,7 @@ public class IOC implements Comparable<IOC> {
      *
      * @return Year of determination.
      */
-    public String getYearOfDetermination() {
+    public int getYearOfDetermination() {
         return yearOfDetermination;
     }
 
@@ -98,25 +117,18 @@ public class IOC implements Comparable<IOC> {
      * @param yearOfDetermination Year in which the International Olympic Committee
      *                            determined the IOC country code.
      */
-    public void setYearOfDetermination(final String yearOfDetermination) {
+    public void setYearOfDetermination(final int yearOfDetermination) {
         this.yearOfDetermination = yearOfDetermination;
+        updateSortKey();
     }
 
     @Override
     public int compareTo(final IOC ioc) {
-        if (Integer.valueOf(this.getYearOfDetermination()) > Integer.valueOf(ioc.getYearOfDetermination())) {
-            return 1;
-        } else if (Integer.valueOf(this.getYearOfDetermination()) < Integer.valueOf(ioc.getYearOfDetermination())) {
-            return -1;
-        } else {
-            if (Integer.valueOf(this.getIocID()) > Integer.valueOf(ioc.getIocID())) {
-                return 1;
-            } else if (Integer.valueOf(this.getIocID()) < Integer.valueOf(ioc.getIocID())) {
-                return -1;
-            } else {
-                return 0;
-            }
-        }
+        return Long.compare(this.sortKey, ioc.sortKey);
+    }
+
+    private void updateSortKey() {
+        this.sortKey = ((long) yearOfDetermination << Integer.SIZE) | iocID;
     }
 
     @Override
@@ -125,7 +137,7 @@ public class IOC implements Comparable<IOC> {
         int result = 1;
         result = prime * result + ((countryName == null) ? 0 : countryName.hashCode());
         result = prime * result + ((iocCode == null) ? 0 : iocCode.hashCode());
-        result = prime * result + ((iocID == null) ? 0 : iocID.hashCode());
+        result = prime * result + iocID;
         return result;
     }
 
@@ -138,7 +150,7 @@ public class IOC implements Comparable<IOC> {
         if (getClass() != obj.getClass())
             return false;
         IOC other = (IOC) obj;
-        if (iocID.equals(other.iocID) || iocCode.equals(other.iocCode) || countryName.equals(other.countryName))
+        if (iocID == other.iocID || iocCode.equals(other.iocCode) || countryName.equals(other.countryName))
             return true;
         if (countryName == null) {
             if (other.countryName != null)
@@ -150,10 +162,7 @@ public class IOC implements Comparable<IOC> {
                 return false;
         } else if (!iocCode.equals(other.iocCode))
             return false;
-        if (iocID == null) {
-            if (other.iocID != null)
-                return false;
-        } else if (!iocID.equals(other.iocID))
+        if (iocID != other.iocID)
             return false;
         return true;
     }
@@ -0,0 +1,128 @@
+package edu.kit.informatik.olympia;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This class registers the IOC country codes. Each of the unique attributes IOC
+ * ID, IOC code and country name has its own index, so that duplicates are
+ * detected in constant time. In addition, the codes are kept in ascending order
+ * of their year of determination and IOC ID, and by their dense ordinal.
+ *
+ * @author Bjoern Holtvogt
+ */
+public class IocRegistry {
+
+    private final Map<Integer, IOC> iocByID;
+    private final Map<String, IOC> iocByCode;
+    private final Map<String, IOC> iocByCountryName;
+    private final Set<IOC> sortedIOC;
+    private final List<IOC> iocByOrdinal;
+
+    /**
+     * Creates an empty IOC registry.
+     */
+    public IocRegistry() {
+        this.iocByID = new HashMap<>();
+        this.iocByCode = new HashMap<>();
+        this.iocByCountryName = new HashMap<>();
+        this.sortedIOC = new TreeSet<>();
+        this.iocByOrdinal = new ArrayList<>();
+    }
+
+    /**
+     * Checks whether any of the unique attributes of an IOC country code is
+     * already registered.
+     *
+     * @param iocID       IOC ID which is going to be checked.
+     * @param iocCode     IOC code which is going to be checked.
+     * @param countryName Country name which is going to be checked.
+     * @return True, if the IOC ID, the IOC code or the country name is already
+     * registered. False, if not.
+     */
+    public boolean isRegistered(final int iocID, final String iocCode, final String countryName) {
+        return iocByID.containsKey(iocID) || iocByCode.containsKey(iocCode)
+                || iocByCountryName.containsKey(countryName);
+    }
+
+    /**
+     * Registers an IOC country code, whose unique attributes mustn't be registered
+     * yet. Its ordinal has to be the amount of registered codes.
+     *
+     * @param ioc New IOC country code.
+     */
+    public void add(final IOC ioc) {
+        iocByOrdinal.add(ioc);
+        iocByID.put(ioc.getIocID(), ioc);
+        iocByCode.put(ioc.getIocCode(), ioc);
+        iocByCountryName.put(ioc.getCountryName(), ioc);
+        sortedIOC.add(ioc);
+    }
+
+    /**
+     * Checks whether a country has an associated IOC code.
+     *
+     * @param countryName Name of the country.
+     * @return True, if the country has an associated IOC code. False, if not.
+     */
+    public boolean containsCountry(final String countryName) {
+        return iocByCountryName.containsKey(countryName);
+    }
+
+    /**
+     * Returns the IOC country code of a country.
+     *
+     * @param countryName Name of the country.
+     * @return IOC country code of the country or null, if the country has no
+     * associated IOC code.
+     */
+    public IOC getByCountryName(final String countryName) {
+        return iocByCountryName.get(countryName);
+    }
+
+    /**
+     * Returns the IOC country code with the given ordinal.
+     *
+     * @param ordinal Ordinal of the IOC country code.
+     * @return The registered IOC country code.
+     */
+    public IOC get(final int ordinal) {
+        return iocByOrdinal.get(ordinal);
+    }
+
+    /**
+     * Returns the amount of registered IOC country codes, which is also the next
+     * free ordinal.
+     *
+     * @return Amount of registered IOC country codes.
+     */
+    public int size() {
+        return iocByOrdinal.size();
+    }
+
+    /**
+     * Returns all IOC country codes in ascending order of their year of
+     * determination and IOC ID.
+     *
+     * @return Unmodifiable view of the sorted IOC country codes.
+     */
+    public Set<IOC> getSortedIOC() {
+        return Collections.unmodifiableSet(sortedIOC);
+    }
+
+    /**
+     * Removes all registered IOC country codes.
+     */
+    public void clear() {
+        iocByID.clear();
+        iocByCode.clear();
+        iocByCountryName.clear();
+        sortedIOC.clear();
+        iocByOrdinal.clear();
+    }
+}
@@ -1,18 +1,24 @@
 package edu.kit.informatik.olympia;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
- * This class represents an entry for the overall medal table.
+ * This class represents an entry for the overall medal table. The totals are
+ * kept in cell-based counters, so that the competitions of many athletes of the
+ * same country can be added concurrently without contending for a single field.
+ * The order of the entries is only consistent while no medals are added.
  *
  * @author Bjoern Holtvogt
  */
 public class MedalTableEntry implements Comparable<MedalTableEntry> {
 
+    private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+
     private final IOC country;
 
-    private int totalGold;
-    private int totalSilver;
-    private int totalBronze;
-    private int totalMedals;
+    private final LongAdder totalGold;
+    private final LongAdder totalSilver;
+    private final LongAdder totalBronze;
 
     /**
      * Creates a new medal table entry for each country participating at the Olympic
@@ -25,11 +31,19 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
      */
     public MedalTableEntry(final IOC country, final int totalGold, final int totalSilver, final int totalBronze) {
         this.country = country;
-        this.totalGold = totalGold;
-        this.totalSilver = totalSilver;
-        this.totalBronze = totalBronze;
-        this.totalMedals = (totalGold + totalSilver + totalBronze);
+        this.totalGold = new LongAdder();
+        this.totalSilver = new LongAdder();
+        this.totalBronze = new LongAdder();
+        addMedals(totalGold, totalSilver, totalBronze);
+    }
 
+    /**
+     * Returns the country of the entry.
+     *
+     * @return Reference to the country.
+     */
+    IOC getCountry() {
+        return country;
     }
 
     /**
@@ -37,7 +51,7 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
      *
      * @return IOC ID.
      */
-    public String getIocID() {
+    public int getIocID() {
         return country.getIocID();
     }
 
@@ -65,7 +79,7 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
      * @return Total amount of gold medals.
      */
     public int getTotalGold() {
-        return totalGold;
+        return totalGold.intValue();
     }
 
     /**
@@ -74,7 +88,8 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
      * @param totalGold Total amount of gold medals.
      */
     public void setTotalGold(final int totalGold) {
-        this.totalGold = totalGold;
+        this.totalGold.reset();
+        this.totalGold.add(totalGold);
     }
 
     /**
@@ -83,7 +98,7 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
      * @return Total amount of silver medals.
      */
     public int getTotalSilver() {
-        return totalSilver;
+        return totalSilver.intValue();
     }
 
     /**
@@ -92,7 +107,8 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
      * @param totalSilver Total amount of silver medals.
      */
     public void setTotalSilver(final int totalSilver) {
-        this.totalSilver = totalSilver;
+        this.totalSilver.reset();
+        this.totalSilver.add(totalSilver);
     }
 
     /**
@@ -101,7 +117,7 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
      * @return Total amount of bronze medals.
      */
     public int getTotalBronze() {
-        return totalBronze;
+        return totalBronze.intValue();
     }
 
     /**
@@ -110,7 +126,8 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
      * @param totalBronze Total amount of bronze medals.
      */
     public void setTotalBronze(final int totalBronze) {
-        this.totalBronze = totalBronze;
+        this.totalBronze.reset();
+        this.totalBronze.add(totalBronze);
     }
 
     /**
@@ -119,45 +136,44 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
      * @return Total amount of all received medals.
      */
     public int getTotalMedals() {
-        return totalMedals;
+        return getTotalGold() + getTotalSilver() + getTotalBronze();
     }
 
     /**
-     * Sets the total amount of all received medals.
+     * Adds the medals of a competition to the totals of a country.
      *
-     * @param totalMedals Total amount of all received medals.
+     * @param gold   Amount of won gold medals.
+     * @param silver Amount of won silver medals.
+     * @param bronze Amount of won bronze medals.
      */
-    public void setTotalMedals(final int totalMedals) {
-        this.totalMedals = totalMedals;
+    public void addMedals(final int gold, final int silver, final int bronze) {
+        // Counters without a medal aren't touched, which keeps their cells uncontended
+        if (gold > 0) {
+            this.totalGold.add(gold);
+        }
+        if (silver > 0) {
+            this.totalSilver.add(silver);
+        }
+        if (bronze > 0) {
+            this.totalBronze.add(bronze);
+        }
     }
 
     @Override
     public int compareTo(final MedalTableEntry medalTableEntry) {
-        if (this.getTotalGold() < medalTableEntry.getTotalGold()) {
-            return 1;
-        } else if (this.getTotalGold() > medalTableEntry.getTotalGold()) {
-            return -1;
-        } else {
-            if (this.getTotalSilver() < medalTableEntry.getTotalSilver()) {
-                return 1;
-            } else if (this.getTotalSilver() > medalTableEntry.getTotalSilver()) {
-                return -1;
-            } else {
-                if (this.getTotalBronze() < medalTableEntry.getTotalBronze()) {
-                    return 1;
-                } else if (this.getTotalBronze() > medalTableEntry.getTotalBronze()) {
-                    return -1;
-                } else {
-                    if (Integer.valueOf(this.getIocID()) < Integer.valueOf(medalTableEntry.getIocID())) {
-                        return -1;
-                    } else if (Integer.valueOf(this.getIocID()) > Integer.valueOf(medalTableEntry.getIocID())) {
-                        return 1;
-                    } else {
-                        return 0;
-                    }
-                }
-            }
-        }
+        int primaryOrder = Long.compare(medalTableEntry.primaryKey(), this.primaryKey());
+        return (primaryOrder != 0) ? primaryOrder : Long.compare(medalTableEntry.secondaryKey(), this.secondaryKey());
+    }
+
+    private long primaryKey() {
+        // Gold medals in the upper and silver medals in the lower half
+        return ((long) getTotalGold() << Integer.SIZE) | getTotalSilver();
+    }
+
+    private long secondaryKey() {
+        // Bronze medals in the upper and the inverted IOC ID in the lower half, so that
+        // both keys are compared in descending order
+        return ((long) getTotalBronze() << Integer.SIZE) | (~getIocID() & UNSIGNED_INT_MASK);
     }
 
     @Override
@@ -177,7 +193,7 @@ public class MedalTableEntry implements Comparable<MedalTableEntry> {
         if (getClass() != obj.getClass())
             return false;
         MedalTableEntry other = (MedalTableEntry) obj;
-        if (this.getIocID().equals(other.getIocID()) || this.getIocCode().equals(other.getIocCode())
+        if (this.getIocID() == other.getIocID() || this.getIocCode().equals(other.getIocCode())
                 || this.getCountryName().equals(other.getCountryName()))
             return true;
         if (country == null) {
@@ -1,8 +1,16 @@
 package edu.kit.informatik.olympia;
 
 import edu.kit.informatik.InvalidInputException;
+import edu.kit.informatik.io.Output;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class processes all administration or archiving interactions from the
@@ -14,40 +22,246 @@ public class OlympicGames {
 
     private static final int OLYMPIC_BEGIN = 1926;
     private static final int CURRENT_OLYMPIC_YEAR = 2018;
+    private static final int OLYMPIC_TURNUS = 4;
+    private static final String THREE_DIGITS = "%03d";
+    private static final String FOUR_DIGITS = "%04d";
 
     private final Map<String, Administrator> adminMap;
-    private final Map<String, IOC> iocMap;
-    private final Map<String, Venue> venueMap;
-    private final Map<Sports, Sports> sportMap;
-    private final Map<String, Athlete> athleteMap;
-    private final Set<MedalTableEntry> medalTable;
+    private final IocRegistry iocRegistry;
+    private final Map<Integer, Venue> venueMap;
+    private final Map<String, CountryVenues> countryVenues;
+    private final SportsDictionary sportsDictionary;
+    private final AthleteStore athleteStore;
+    private final List<List<Athlete>> leaderboards;
+    private final Map<String, MedalTableEntry> medalTableEntries;
+    private WriteAheadLog writeAheadLog;
+    private Path snapshotPath;
+    private Path archivePath;
+    private long logEpoch;
+    private SnapshotAthletes snapshotAthletes;
+    private CompetitionStore competitionStore;
+    private final LongAdder competitions;
+    private final Set<Integer> dirtyLeaderboards;
+    private boolean allLeaderboardsDirty;
+    private final Set<String> dirtyVenueCountries;
+    private boolean allVenuesDirty;
+    private boolean sportsDirty;
+    private boolean iocCodesDirty;
+    private boolean medalTableDirty;
+    private volatile ReadView readView;
 
     /**
      * Creates an Olympic Games management and archiving system.
      */
     public OlympicGames() {
         this.adminMap = new HashMap<>();
-        this.iocMap = new TreeMap<>();
+        this.iocRegistry = new IocRegistry();
         this.venueMap = new HashMap<>();
-        this.sportMap = new TreeMap<>();
-        this.athleteMap = new HashMap<>();
-        this.medalTable = new TreeSet<>();
+        this.countryVenues = new HashMap<>();
+        this.sportsDictionary = new SportsDictionary();
+        this.athleteStore = new AthleteStore();
+        this.leaderboards = new ArrayList<>();
+        this.medalTableEntries = new HashMap<>();
+        this.competitions = new LongAdder();
+        this.dirtyLeaderboards = ConcurrentHashMap.newKeySet();
+        this.dirtyVenueCountries = new HashSet<>();
+        markAllDirty();
+        publishReadView();
     }
 
     /**
-     * Checks for an logged in admin.
+     * Publishes a new read view, which contains all mutations up to now. Only the
+     * sections which have changed since the previous view are created anew, the
+     * others are shared. This mustn't run concurrently with any mutation.
+     */
+    public void publish() {
+        publishReadView();
+    }
+
+    private void publishReadView() {
+        ReadView previous = readView;
+        boolean lazy = snapshotAthletes != null;
+        boolean leaderboardsDirty = allLeaderboardsDirty || !dirtyLeaderboards.isEmpty();
+        boolean venuesDirty = allVenuesDirty || !dirtyVenueCountries.isEmpty();
+        if (previous != null && !venuesDirty && !sportsDirty && !iocCodesDirty && !medalTableDirty
+                && !leaderboardsDirty && previous.restoresLazily() == lazy) {
+            return;
+        }
+        readView = new ReadView(venuesDirty ? createVenueLines(previous) : previous.getVenueLines(),
+                sportsDirty ? createSportLines() : previous.getSportLines(),
+                iocCodesDirty ? createIocCodeLines() : previous.getIocCodeLines(),
+                leaderboardsDirty ? createLeaderboards(previous) : previous.getLeaderboards(),
+                medalTableDirty ? createMedalTable() : previous.getMedalTable(), lazy);
+        sportsDirty = false;
+        iocCodesDirty = false;
+        medalTableDirty = false;
+        allVenuesDirty = false;
+        dirtyVenueCountries.clear();
+        allLeaderboardsDirty = false;
+        dirtyLeaderboards.clear();
+    }
+
+    /**
+     * Attaches a write-ahead log, to which every successful mutation is appended
+     * before its response is given.
      *
-     * @return True, if an admin is logged in. False, if not.
+     * @param writeAheadLog Opened write-ahead log or null, if mutations aren't
+     *                      logged.
      */
-    public boolean isLoggedIn() {
-        for (Administrator administrator : adminMap.values()) {
-            if (administrator.isOnline()) {
-                return true;
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    /**
+     * Attaches a competition store, which receives every accepted competition as a
+     * row. Rows behind the competitions of the current state are dropped, since
+     * they are rebuilt by the write-ahead log. This has to happen after the
+     * snapshot has been restored and before the write-ahead log is opened.
+     *
+     * @param competitionStore Opened competition store or null, if competitions
+     *                         aren't stored.
+     * @throws IOException if the store lacks competitions of the current state.
+     */
+    public void setCompetitionStore(CompetitionStore competitionStore) throws IOException {
+        if (competitionStore != null) {
+            if (competitionStore.size() < competitions.sum()) {
+                throw new IOException("competition store holds only " + competitionStore.size() + " of "
+                        + competitions.sum() + " competitions.");
             }
+            competitionStore.truncate(competitions.sum());
+        }
+        this.competitionStore = competitionStore;
+    }
+
+    /**
+     * Configures the snapshot file which is written by every checkpoint. If the
+     * snapshot file already exists, the whole state is restored from it. This has
+     * to happen before a write-ahead log is opened, since the log continues the
+     * snapshot.
+     * <p>
+     * If the snapshot is restored lazily, only the admins, IOC codes, venues and
+     * sports are restored right away. The snapshot is mapped into memory and each
+     * athlete is restored the first time a command needs it.
+     *
+     * @param snapshotPath Path of the snapshot file.
+     * @param lazy         True, if athletes are restored on demand. False, if all
+     *                     of them are restored right away.
+     * @throws IOException if the existing snapshot file can't be restored.
+     */
+    public void openSnapshot(Path snapshotPath, boolean lazy) throws IOException {
+        this.snapshotPath = snapshotPath;
+        if (Files.exists(snapshotPath)) {
+            logEpoch = lazy ? Snapshot.readLazily(snapshotPath, this) : Snapshot.read(snapshotPath, this);
         }
+    }
+
+    /**
+     * Configures the archive file, to which every checkpoint also writes the
+     * athletes and competitions in a compressed form. The competitions are taken
+     * from the competition store, which has to be configured as well.
+     *
+     * @param archivePath Path of the archive file or null, if no archive is
+     *                    written.
+     */
+    public void setArchivePath(Path archivePath) {
+        this.archivePath = archivePath;
+    }
+
+    /**
+     * Returns whether athletes of a snapshot were still waiting to be restored
+     * when the latest read view was published. Until then, the leaderboards of the
+     * view may be incomplete, and listing one restores its athletes first.
+     *
+     * @return True, if athletes are restored on demand. False, if all of them
+     * have been restored.
+     */
+    public boolean restoresLazily() {
+        return readView.restoresLazily();
+    }
+
+    /**
+     * Returns whether athletes of a snapshot are waiting to be restored right now.
+     * Unlike {@link #restoresLazily()}, this doesn't depend on the latest read
+     * view, so it may only be asked by a thread which keeps any mutation from
+     * running concurrently.
+     *
+     * @return True, if athletes are restored on demand. False, if all of them
+     * have been restored.
+     */
+    public boolean hasPendingSnapshotAthletes() {
+        return snapshotAthletes != null;
+    }
+
+    /**
+     * Returns whether the Olympic Games apply every mutation on threads of their
+     * own, so that commands may be executed from any thread without a lock.
+     *
+     * @return True, if mutations are confined to threads of the Olympic Games.
+     * False, if the caller has to keep mutations from running concurrently.
+     */
+    public boolean confinesMutations() {
         return false;
     }
 
+    /**
+     * Returns the latest published read view.
+     *
+     * @return Latest read view.
+     */
+    ReadView getReadView() {
+        return readView;
+    }
+
+    /**
+     * Returns the epoch of the write-ahead log which continues the current state.
+     *
+     * @return Epoch of the write-ahead log.
+     */
+    long getLogEpoch() {
+        return logEpoch;
+    }
+
+    /**
+     * Writes the whole state, including the admins, to the snapshot file. All
+     * mutations up to now are contained in the snapshot, so the write-ahead log
+     * starts over with a new epoch afterwards. If an archive file has been
+     * configured, the archive is written as well.
+     *
+     * @return OK, if the checkpoint was successfully written.
+     * @throws InvalidInputException if no snapshot file has been configured, an
+     *                               archive file has been configured without a
+     *                               competition store or the snapshot can't be
+     *                               written.
+     */
+    public String checkpoint() throws InvalidInputException {
+        if (snapshotPath == null) {
+            throw new InvalidInputException("no snapshot file has been configured.");
+        }
+        if (archivePath != null && competitionStore == null) {
+            throw new InvalidInputException("an archive needs a competition store.");
+        }
+        long nextLogEpoch = logEpoch + 1;
+        try {
+            // The snapshot mustn't count competitions which the store might still lose
+            if (competitionStore != null) {
+                competitionStore.force();
+            }
+            Snapshot.write(snapshotPath, this, nextLogEpoch);
+            // A crash before the log has started over leaves a stale log, which is discarded by its epoch
+            if (writeAheadLog != null) {
+                writeAheadLog.restart(nextLogEpoch);
+            }
+            // The archive is only a cold copy, so it isn't needed for recovery
+            if (archivePath != null) {
+                CompetitionArchive.write(archivePath, this, competitionStore);
+            }
+        } catch (IOException ioException) {
+            throw new InvalidInputException("checkpoint can't be written: " + ioException.getMessage());
+        }
+        logEpoch = nextLogEpoch;
+        return "OK";
+    }
+
     /**
      * Adds an admin to the system who can manage and archive records.
      *
@@ -67,16 +281,19 @@ public class OlympicGames {
 
     /**
      * Authenticates an admin of the management and archiving system and gives him
-     * the rights to call certain commands according to the rights.
+     * the rights to call certain commands according to the rights within the given
+     * session.
      *
+     * @param session  Session through which the admin logs in.
      * @param userName User name of an admin.
      * @param passWord Password of an admin account.
      * @return OK, if user name and password are valid.
      * @throws InvalidInputException if any of the given parameters are invalid.
      */
-    public String loginAdmin(String userName, String passWord) throws InvalidInputException {
-        if (adminMap.get(userName) != null && adminMap.get(userName).getPassWord().equals(passWord)) {
-            adminMap.get(userName).setOnline(true);
+    public String loginAdmin(Session session, String userName, String passWord) throws InvalidInputException {
+        Administrator administrator = adminMap.get(userName);
+        if (administrator != null && administrator.getPassWord().equals(passWord)) {
+            session.setAdministrator(administrator);
             return "OK";
         }
         throw new InvalidInputException("user name or password is incorrect.");
@@ -85,18 +302,17 @@ public class OlympicGames {
     /**
      * Logs out an previously authenticated admin of the management and archiving
      * system of the login command and deprives him of the ability to invoke
-     * appropriate commands until he authenticates again.
+     * appropriate commands within the given session until he authenticates again.
      *
+     * @param session Session through which the admin has logged in.
      * @return OK, if an admin was successfully logged out.
      * @throws InvalidInputException if no admin has been online before the command
      *                               was executed.
      */
-    public String logoutAdmin() throws InvalidInputException {
-        for (Administrator administrator : adminMap.values()) {
-            if (administrator.isOnline()) {
-                administrator.setOnline(false);
-                return "OK";
-            }
+    public String logoutAdmin(Session session) throws InvalidInputException {
+        if (session.isLoggedIn()) {
+            session.setAdministrator(null);
+            return "OK";
         }
         throw new InvalidInputException("no admin is being online.");
     }
@@ -116,41 +332,58 @@ public class OlympicGames {
      * @throws InvalidInputException if the given country parameter has no
      *                               associated IOC code.
      */
-    public String addSportsVenue(String venueID, String countryName, String location, String venueName,
+    public String addSportsVenue(int venueID, String countryName, String location, String venueName,
                                  int yearOfOpening, int amountOfSeats) throws InvalidInputException {
 
-        if (iocMap.containsKey(countryName)) {
-            Venue newVenue = new Venue(venueID, iocMap.get(countryName), location, venueName, yearOfOpening,
-                    amountOfSeats);
-            return addElement(venueMap, venueID, newVenue, "venue already exists.");
+        if (iocRegistry.containsCountry(countryName)) {
+            Venue newVenue = new Venue(venueID, iocRegistry.getByCountryName(countryName), location, venueName,
+                    yearOfOpening, amountOfSeats);
+            addElement(venueMap, venueID, newVenue, "venue already exists.");
+            countryVenues.computeIfAbsent(countryName, country -> new CountryVenues()).add(newVenue);
+            dirtyVenueCountries.add(countryName);
+            if (writeAheadLog != null) {
+                writeAheadLog.logSportsVenue(venueID, countryName, location, venueName, yearOfOpening,
+                        amountOfSeats);
+            }
+            return "OK";
         }
         throw new InvalidInputException("country has no associated IOC code.");
     }
 
+    /**
+     * Returns the amount of sports venues of a certain country.
+     *
+     * @param countryName Country in which the venues are located.
+     * @return Amount of sports venues of the country.
+     */
+    public int getVenueCount(String countryName) {
+        CountryVenues venues = countryVenues.get(countryName);
+        return (venues == null) ? 0 : venues.getVenueCount();
+    }
+
+    /**
+     * Returns the total amount of seats of all sports venues of a certain country.
+     *
+     * @param countryName Country in which the venues are located.
+     * @return Total amount of seats of all sports venues of the country.
+     */
+    public long getTotalSeats(String countryName) {
+        CountryVenues venues = countryVenues.get(countryName);
+        return (venues == null) ? 0 : venues.getTotalSeats();
+    }
+
     /**
      * Lists the sports facilities of a certain country in ascending order of number
      * of seats. In the case of equality, the unique venue ID is crucial for the
      * listing and will thereby listed in ascending order.
      *
      * @param countryName Country in which the venues are located.
+     * @param output      Sink for the listed venues.
      * @throws InvalidInputException if the given country parameter has no
      *                               associated IOC code.
      */
-    public void listSportsVenues(String countryName) throws InvalidInputException {
-        boolean matchingIOC = iocMap.containsKey(countryName);
-        if (!matchingIOC) {
-            throw new InvalidInputException("country has no associated IOC code.");
-        } else if (matchingIOC && !venueMap.isEmpty()) {
-            int placement = 1;
-            Set<Venue> sortedVenues = new TreeSet<>(venueMap.values());
-            for (Venue venue : sortedVenues) {
-                if (venue.getVenueCountry().equals(countryName)) {
-                    System.out.println("(" + placement + " " + venue.getVenueID() + " " + venue.getLocation() + " "
-                            + venue.getAmountOfSeats() + ")");
-                    placement++;
-                }
-            }
-        }
+    public void listSportsVenues(String countryName, Output output) throws InvalidInputException {
+        readView.listSportsVenues(countryName, output);
     }
 
     /**
@@ -163,19 +396,27 @@ public class OlympicGames {
      * @throws InvalidInputException if the given sport tuple already exists.
      */
     public String addOlympicSport(String sport, String discipline) throws InvalidInputException {
-        Sports newSport = new Sports(sport, discipline);
-        return addElement(sportMap, newSport, newSport, "sport and discipline already exists.");
+        Sports newSport = sportsDictionary.register(sport, discipline);
+        if (newSport == null) {
+            throw new InvalidInputException("sport and discipline already exists.");
+        }
+        // Leaderboards are indexed by the ordinal of their sport
+        leaderboards.add(new ArrayList<>());
+        sportsDirty = true;
+        dirtyLeaderboards.add(newSport.getOrdinal());
+        if (writeAheadLog != null) {
+            writeAheadLog.logOlympicSport(sport, discipline);
+        }
+        return "OK";
     }
 
     /**
      * Lists the sports and sports disciplines in alphabetic order.
+     *
+     * @param output Sink for the listed sports.
      */
-    public void listOlympicSports() {
-        if (!sportMap.isEmpty()) {
-            for (Sports sport : sportMap.values()) {
-                System.out.println(sport.getSport() + " " + sport.getDiscipline());
-            }
-        }
+    public void listOlympicSports(Output output) {
+        readView.listOlympicSports(output);
     }
 
     /**
@@ -189,33 +430,37 @@ public class OlympicGames {
      * @return OK, if the IOC code was successfully added.
      * @throws InvalidInputException if the IOC already exists.
      */
-    public String addIocCode(String iocID, String iocCode, String countryName, String yearOfDetermination)
+    public String addIocCode(int iocID, String iocCode, String countryName, int yearOfDetermination)
             throws InvalidInputException {
 
-        IOC newIOC = new IOC(iocID, iocCode, countryName, yearOfDetermination);
-        // Check if element exists, so that the subsequent addition can no longer trigger an error
-        for (IOC ioc : iocMap.values()) {
-            if (ioc.equals(newIOC)) {
-                throw new InvalidInputException("IOC already exists.");
-            }
+        // IOC ID, IOC code and country name have to be unique on their own
+        if (iocRegistry.isRegistered(iocID, iocCode, countryName)) {
+            throw new InvalidInputException("IOC already exists.");
+        }
+        IOC newIOC = new IOC(iocID, iocCode, countryName, yearOfDetermination, iocRegistry.size());
+        iocRegistry.add(newIOC);
+        // Every country takes part in the medal table, even without any medals
+        MedalTableEntry newEntry = new MedalTableEntry(newIOC, 0, 0, 0);
+        medalTableEntries.put(countryName, newEntry);
+        iocCodesDirty = true;
+        // The new country can be listed from now on, even without any venues
+        dirtyVenueCountries.add(countryName);
+        medalTableDirty = true;
+        if (writeAheadLog != null) {
+            writeAheadLog.logIocCode(iocID, iocCode, countryName, yearOfDetermination);
         }
-        // Country name as key because it's the most queried attribute and should also be unique
-        return addElement(iocMap, countryName, new IOC(iocID, iocCode, countryName, yearOfDetermination), "");
+        return "OK";
     }
 
     /**
      * Lists the codes in ascending order after the year of determination. In case
      * of equality, the IOC ID is crucial for listing and will thereby listed in
      * ascending order.
+     *
+     * @param output Sink for the listed IOC codes.
      */
-    public void listIocCodes() {
-        if (!iocMap.isEmpty()) {
-            Set<IOC> sortedIOC = new TreeSet<>(iocMap.values());
-            for (IOC ioc : sortedIOC) {
-                System.out.println(ioc.getYearOfDetermination() + " " + ioc.getIocID() + " " + ioc.getIocCode() + " "
-                        + ioc.getCountryName());
-            }
-        }
+    public void listIocCodes(Output output) {
+        readView.listIocCodes(output);
     }
 
     /**
@@ -238,32 +483,39 @@ public class OlympicGames {
      *                               <p>
      *                               Given IOC or sport doesn't exist.
      */
-    public String addAthlete(String athleteID, String foreName, String surName, String countryOfOrigin, String sport,
+    public String addAthlete(int athleteID, String foreName, String surName, String countryOfOrigin, String sport,
                              String discipline) throws InvalidInputException {
 
-        Sports sportReference = new Sports(sport, discipline);
-        boolean matchingIOC = iocMap.containsKey(countryOfOrigin);
-        boolean matchingSport = sportMap.containsKey(sportReference);
+        Sports sportReference = sportsDictionary.lookup(sport, discipline);
+        boolean matchingIOC = iocRegistry.containsCountry(countryOfOrigin);
+        boolean matchingSport = sportReference != null;
         if (matchingIOC && matchingSport) {
-            if (!athleteMap.isEmpty()) {
+            Athlete athlete = findAthlete(athleteID);
+            if (athlete != null) {
                 // Athlete's characteristics such as ID, forename, surname, country of origin already exist
-                if (athleteMap.containsKey(athleteID) && athleteMap.get(athleteID).getForeName().equals(foreName)
-                        && athleteMap.get(athleteID).getSurName().equals(surName)
-                        && athleteMap.get(athleteID).getCountryOfOrigin().equals(countryOfOrigin)) {
+                if (athlete.getForeName().equals(foreName) && athlete.getSurName().equals(surName)
+                        && athlete.getCountryOfOrigin().equals(countryOfOrigin)) {
 
-                    if (!athleteMap.get(athleteID).isParticipating(sportReference)) {
-                        athleteMap.get(athleteID).participates(sportReference);
-                        athleteMap.get(athleteID).setSportsMedal(sportReference, 0);
+                    if (!athlete.isParticipating(sportReference)) {
+                        athlete.participates(sportReference);
+                        athlete.setSportsMedal(sportReference, 0);
+                        leaderboards.get(sportReference.getOrdinal()).add(athlete);
+                        dirtyLeaderboards.add(sportReference.getOrdinal());
+                        logAthlete(athleteID, foreName, surName, countryOfOrigin, sport, discipline);
                         return "OK";
                     } else {
                         throw new InvalidInputException("athlete can't participate twice.");
                     }
                 }
+                throw new InvalidInputException("athlete forename, surname or country of origin is invalid.");
             }
-            Athlete newAthlete = new Athlete(athleteID, foreName, surName, iocMap.get(countryOfOrigin), sportReference);
-            // Doesn't trigger an error, if no athlete has been added yet
-            return addElement(athleteMap, athleteID, newAthlete, "athlete forename, surname or country of origin is " +
-                    "invalid.");
+            Athlete newAthlete = new Athlete(athleteID, foreName, surName,
+                    iocRegistry.getByCountryName(countryOfOrigin), sportReference);
+            athleteStore.add(newAthlete);
+            leaderboards.get(sportReference.getOrdinal()).add(newAthlete);
+            dirtyLeaderboards.add(sportReference.getOrdinal());
+            logAthlete(athleteID, foreName, surName, countryOfOrigin, sport, discipline);
+            return "OK";
         }
         throw new InvalidInputException("not existing IOC or sport.");
     }
@@ -272,39 +524,32 @@ public class OlympicGames {
      * Lists the participants of the Olympic Winter Games on the basis of their
      * sporting achievements in the respective sport and sports discipline. It is
      * sorted by the number of medals won in descending order. If equal, the ID is
-     * sorted in ascending order.
+     * sorted in ascending order. Only the leaderboard of the requested sport is
+     * walked through, which is sorted again whenever its medals have changed
+     * since the previous read view.
      *
      * @param sport      Name of the sport which wants to be summarised.
      * @param discipline Discipline of the sport which wants to be summarised.
+     * @param output     Sink for the listed athletes.
      * @throws InvalidInputException if the given sport tuple doesn't exist.
      */
-    public void summaryAthlete(String sport, String discipline) throws InvalidInputException {
-        Sports wantedSport = new Sports(sport, discipline);
-        if (sportMap.containsKey(wantedSport)) {
-            if (!athleteMap.isEmpty()) {
-                // Receiving possible candidates and assigning them with a current medal table
-                for (Athlete athlete : athleteMap.values()) {
-                    if (athlete.isParticipating(wantedSport)) {
-                        athlete.setCurrentMedals(athlete.getSportsMedals(wantedSport));
-                    }
-                }
-                Set<Athlete> competingAthletes = new TreeSet<>(athleteMap.values());
-                for (Athlete athlete : competingAthletes) {
-                    if (athlete.isParticipating(wantedSport)) {
-                        System.out.println(athlete.getAthleteID() + " " + athlete.getForeName() + " " + athlete.getSurName() + " "
-                                + athlete.getCurrentMedals());
-                        athlete.setCurrentMedals(-1);
-                    }
-                }
+    public void summaryAthlete(String sport, String discipline, Output output) throws InvalidInputException {
+        if (snapshotAthletes != null) {
+            // The leaderboard is only complete once all of its athletes have been restored
+            Sports wantedSport = sportsDictionary.lookup(sport, discipline);
+            if (wantedSport != null) {
+                snapshotAthletes.loadSport(wantedSport.getOrdinal(), this::restoreAthlete);
+                publish();
             }
-        } else {
-            throw new InvalidInputException("not existing sport.");
         }
+        readView.summaryAthlete(sport, discipline, output);
     }
 
     /**
      * Adds the result of a competition by a participating athlete to the management
-     * and archiving system.
+     * and archiving system. Competitions may be added concurrently with each other,
+     * as long as no other mutation runs at the same time and no athlete of a
+     * snapshot is waiting to be restored.
      *
      * @param athleteID         Unique athlete ID.
      * @param participationYear Year in which the athlete has participated.
@@ -330,23 +575,30 @@ public class OlympicGames {
      *                               The athlete's medal input is more than one
      *                               medal.
      */
-    public String addCompetition(String athleteID, int participationYear, String countryOfOrigin, String sport,
+    public String addCompetition(int athleteID, int participationYear, String countryOfOrigin, String sport,
                                  String discipline, int gold, int silver, int bronze) throws InvalidInputException {
 
-        Sports sportReference = new Sports(sport, discipline);
+        Sports sportReference = sportsDictionary.lookup(sport, discipline);
         // Athlete can't win more than one medal in a competition
         if (!((gold + silver + bronze) > 1)) {
-            if (athleteMap.containsKey(athleteID) && sportMap.containsKey(sportReference)
-                    && iocMap.containsKey(countryOfOrigin)) {
+            Athlete athlete = findAthlete(athleteID);
+            if (athlete != null && sportReference != null
+                    && iocRegistry.containsCountry(countryOfOrigin)) {
 
-                boolean validAthlet = athleteMap.get(athleteID).getCountryOfOrigin().equals(countryOfOrigin);
-                boolean validSport = athleteMap.get(athleteID).isParticipating(sportReference);
-                boolean validYear = olympicTurnus(iocMap.get(countryOfOrigin), participationYear);
+                boolean validAthlet = athlete.getCountryOfOrigin().equals(countryOfOrigin);
+                boolean validSport = athlete.isParticipating(sportReference);
+                boolean validYear = olympicTurnus(iocRegistry.getByCountryName(countryOfOrigin), participationYear);
                 if (validAthlet && validSport && validYear) {
                     // Same sport and year isn't allowed
-                    if (!athleteMap.get(athleteID).hasCompeted(sportReference, participationYear)) {
-                        athleteMap.get(athleteID).competes(sportReference, participationYear);
-                        refreshMedals(athleteMap.get(athleteID), sportReference, gold, silver, bronze);
+                    int gamesOrdinal = gamesOrdinal(participationYear);
+                    if (athlete.competes(sportReference, gamesOrdinal, gold, silver, bronze)) {
+                        refreshMedals(athlete, sportReference, gold, silver, bronze);
+                        storeCompetition(athleteID, gamesOrdinal, iocRegistry.getByCountryName(countryOfOrigin),
+                                sportReference, gold, silver, bronze);
+                        if (writeAheadLog != null) {
+                            writeAheadLog.logCompetition(athleteID, participationYear, countryOfOrigin, sport,
+                                    discipline, gold, silver, bronze);
+                        }
                         return "OK";
                     }
                     throw new InvalidInputException("athlete can't compete twice in a year.");
@@ -363,36 +615,13 @@ public class OlympicGames {
      * Starting with place 1, the output will be sorted in descending order by the
      * number of gold medals, then the silver medals and lastly by the number of
      * bronze medals. In case of equality, the order is sorted in ascending order
-     * according to the IOC ID.
-     */
-    public void olympicMedalTable() {
-        if (!iocMap.isEmpty()) {
-            for (IOC ioc : iocMap.values()) {
-                int totalGold = 0;
-                int totalSilver = 0;
-                int totalBronze = 0;
-                // Every country receives a total result of their athletes medal amount
-                for (Athlete athlete : athleteMap.values()) {
-                    if (athlete.getCountryOfOrigin().equals(ioc.getCountryName())) {
-                        totalGold += athlete.getGoldMedal();
-                        totalSilver += athlete.getSilverMedal();
-                        totalBronze += athlete.getBronzeMedal();
-                    }
-                }
-                MedalTableEntry newEntry = new MedalTableEntry(ioc, totalGold, totalSilver, totalBronze);
-                medalTable.add(newEntry);
-            }
-            int placement = 1;
-            for (MedalTableEntry medalTableEntry : medalTable) {
-                System.out.println("(" + (placement) + "," + medalTableEntry.getIocID() + "," + medalTableEntry.getIocCode() + ","
-                        + medalTableEntry.getCountryName() + "," + medalTableEntry.getTotalGold() + ","
-                        + medalTableEntry.getTotalSilver() + "," + medalTableEntry.getTotalBronze() + ","
-                        + medalTableEntry.getTotalMedals() + ")");
-                placement++;
-            }
-            // Prepare for next update
-            medalTable.clear();
-        }
+     * according to the IOC ID. The medal table is sorted once per read view in
+     * which any medals have changed, so it only has to be walked through.
+     *
+     * @param output Sink for the lines of the medal table.
+     */
+    public void olympicMedalTable(Output output) {
+        readView.olympicMedalTable(output);
     }
 
     /**
@@ -401,14 +630,387 @@ public class OlympicGames {
      * @return OK, if the reset was successfully executed.
      */
     public String reset() {
-        iocMap.clear();
-        venueMap.clear();
-        sportMap.clear();
-        athleteMap.clear();
-        medalTable.clear();
+        clearArchive();
+        if (writeAheadLog != null) {
+            writeAheadLog.logReset();
+        }
         return "OK";
     }
 
+    /**
+     * Writes the admins, IOC codes, venues and sports to a snapshot. The sports are
+     * written in the order of their ordinals, so that the ordinals are the same
+     * after restoring them.
+     *
+     * @param output Destination of the state.
+     * @throws IOException if the state can't be written.
+     */
+    void writeReferenceData(DataOutput output) throws IOException {
+        output.writeLong(competitions.sum());
+        output.writeInt(adminMap.size());
+        for (Administrator administrator : adminMap.values()) {
+            Snapshot.writeString(output, administrator.getForeName());
+            Snapshot.writeString(output, administrator.getSurName());
+            Snapshot.writeString(output, administrator.getUserName());
+            Snapshot.writeString(output, administrator.getPassWord());
+        }
+        // The IOC codes are written in the order of their ordinals, which the competition store refers to
+        output.writeInt(iocRegistry.size());
+        for (int ordinal = 0; ordinal < iocRegistry.size(); ordinal++) {
+            IOC ioc = iocRegistry.get(ordinal);
+            MedalTableEntry entry = medalTableEntries.get(ioc.getCountryName());
+            output.writeInt(ioc.getIocID());
+            Snapshot.writeString(output, ioc.getIocCode());
+            Snapshot.writeString(output, ioc.getCountryName());
+            output.writeInt(ioc.getYearOfDetermination());
+            output.writeInt(entry.getTotalGold());
+            output.writeInt(entry.getTotalSilver());
+            output.writeInt(entry.getTotalBronze());
+        }
+        output.writeInt(venueMap.size());
+        for (Venue venue : venueMap.values()) {
+            output.writeInt(venue.getVenueID());
+            Snapshot.writeString(output, venue.getVenueCountry());
+            Snapshot.writeString(output, venue.getLocation());
+            Snapshot.writeString(output, venue.getVenueName());
+            output.writeInt(venue.getYearOfOpening());
+            output.writeInt(venue.getAmountOfSeats());
+        }
+        output.writeInt(sportsDictionary.size());
+        for (int ordinal = 0; ordinal < sportsDictionary.size(); ordinal++) {
+            Sports sport = sportsDictionary.get(ordinal);
+            Snapshot.writeString(output, sport.getSport());
+            Snapshot.writeString(output, sport.getDiscipline());
+        }
+    }
+
+    /**
+     * Replaces the whole state, including the admins, by the admins, IOC codes,
+     * venues and sports of a snapshot. No athlete is left afterwards.
+     *
+     * @param input   Source of the state.
+     * @param version Version of the format of the snapshot.
+     * @throws IOException if the state can't be read.
+     */
+    void readReferenceData(DataInput input, int version) throws IOException {
+        adminMap.clear();
+        clearArchive();
+        if (version >= Snapshot.FIRST_COUNTING_VERSION) {
+            competitions.add(input.readLong());
+        }
+        int admins = input.readInt();
+        for (int i = 0; i < admins; i++) {
+            Administrator administrator = new Administrator(Snapshot.readString(input),
+                    Snapshot.readString(input), Snapshot.readString(input), Snapshot.readString(input));
+            adminMap.put(administrator.getUserName(), administrator);
+        }
+        int countries = input.readInt();
+        for (int i = 0; i < countries; i++) {
+            IOC ioc = new IOC(input.readInt(), Snapshot.readString(input), Snapshot.readString(input),
+                    input.readInt(), iocRegistry.size());
+            iocRegistry.add(ioc);
+            MedalTableEntry entry = new MedalTableEntry(ioc, input.readInt(), input.readInt(), input.readInt());
+            medalTableEntries.put(ioc.getCountryName(), entry);
+        }
+        int venues = input.readInt();
+        for (int i = 0; i < venues; i++) {
+            int venueID = input.readInt();
+            String countryName = Snapshot.readString(input);
+            Venue venue = new Venue(venueID, iocRegistry.getByCountryName(countryName), Snapshot.readString(input),
+                    Snapshot.readString(input), input.readInt(), input.readInt());
+            venueMap.put(venueID, venue);
+            countryVenues.computeIfAbsent(countryName, country -> new CountryVenues()).add(venue);
+        }
+        int sports = input.readInt();
+        for (int i = 0; i < sports; i++) {
+            sportsDictionary.register(Snapshot.readString(input), Snapshot.readString(input));
+            leaderboards.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Returns the amount of sport tuples.
+     *
+     * @return Amount of sport tuples.
+     */
+    int getSportsCount() {
+        return sportsDictionary.size();
+    }
+
+    /**
+     * Returns the sport tuple with the given ordinal.
+     *
+     * @param ordinal Ordinal of the sport.
+     * @return Sport tuple with the ordinal.
+     */
+    Sports getSport(int ordinal) {
+        return sportsDictionary.get(ordinal);
+    }
+
+    /**
+     * Returns the amount of IOC codes.
+     *
+     * @return Amount of IOC codes.
+     */
+    int getCountryCount() {
+        return iocRegistry.size();
+    }
+
+    /**
+     * Returns the IOC code with the given ordinal.
+     *
+     * @param ordinal Ordinal of the IOC code.
+     * @return IOC code with the ordinal.
+     */
+    IOC getCountry(int ordinal) {
+        return iocRegistry.get(ordinal);
+    }
+
+    /**
+     * Returns all athletes in ascending order of their athlete ID. Athletes of a
+     * snapshot which haven't been needed so far are restored first.
+     *
+     * @return All athletes in ascending order of their athlete ID.
+     */
+    Athlete[] getSortedAthletes() {
+        if (snapshotAthletes != null) {
+            snapshotAthletes.loadAll(this::restoreAthlete);
+            snapshotAthletes = null;
+        }
+        Athlete[] athletes = new Athlete[athleteStore.size()];
+        int i = 0;
+        for (Athlete athlete : athleteStore) {
+            athletes[i++] = athlete;
+        }
+        Arrays.sort(athletes, Comparator.comparingInt(Athlete::getAthleteID));
+        return athletes;
+    }
+
+    /**
+     * Writes an athlete to a snapshot, including the medals and the competed
+     * Olympic Games of every sport the athlete participates in.
+     *
+     * @param output  Destination of the athlete.
+     * @param athlete Athlete which is going to be written.
+     * @throws IOException if the athlete can't be written.
+     */
+    static void writeAthlete(DataOutput output, Athlete athlete) throws IOException {
+        output.writeInt(athlete.getAthleteID());
+        Snapshot.writeString(output, athlete.getForeName());
+        Snapshot.writeString(output, athlete.getSurName());
+        Snapshot.writeString(output, athlete.getCountryOfOrigin());
+        output.writeInt(athlete.getGoldMedal());
+        output.writeInt(athlete.getSilverMedal());
+        output.writeInt(athlete.getBronzeMedal());
+        int participations = 0;
+        for (int ordinal = 0; ordinal < athlete.getSportsSlots(); ordinal++) {
+            if (athlete.getCompetedGames(ordinal) != 0) {
+                participations++;
+            }
+        }
+        output.writeInt(participations);
+        for (int ordinal = 0; ordinal < athlete.getSportsSlots(); ordinal++) {
+            if (athlete.getCompetedGames(ordinal) != 0) {
+                output.writeInt(ordinal);
+                output.writeInt(athlete.getSportsMedals(ordinal));
+                output.writeInt(athlete.getCompetedGames(ordinal));
+            }
+        }
+    }
+
+    /**
+     * Reads an athlete which has been written by {@link #writeAthlete}. The IOC
+     * codes and sports of the snapshot have to be restored already.
+     *
+     * @param input Source of the athlete.
+     * @return The read athlete, which hasn't been added yet.
+     * @throws IOException if the athlete can't be read.
+     */
+    Athlete readAthlete(DataInput input) throws IOException {
+        int athleteID = input.readInt();
+        String foreName = Snapshot.readString(input);
+        String surName = Snapshot.readString(input);
+        IOC countryOfOrigin = iocRegistry.getByCountryName(Snapshot.readString(input));
+        int gold = input.readInt();
+        int silver = input.readInt();
+        int bronze = input.readInt();
+        int participations = input.readInt();
+        Athlete athlete = null;
+        for (int i = 0; i < participations; i++) {
+            int ordinal = input.readInt();
+            if (athlete == null) {
+                athlete = new Athlete(athleteID, foreName, surName, countryOfOrigin, sportsDictionary.get(ordinal));
+            }
+            athlete.restoreSport(ordinal, input.readInt(), input.readInt());
+        }
+        if (athlete == null) {
+            throw new IOException("athlete " + athleteID + " doesn't participate in any sport.");
+        }
+        athlete.setGoldMedal(gold);
+        athlete.setSilverMedal(silver);
+        athlete.setBronzeMedal(bronze);
+        return athlete;
+    }
+
+    /**
+     * Adds an athlete of a snapshot, whose medals are already counted in the
+     * medal table, and positions it in the leaderboards of all of its sports.
+     *
+     * @param athlete Athlete of a snapshot.
+     */
+    void restoreAthlete(Athlete athlete) {
+        athleteStore.add(athlete);
+        for (int ordinal = 0; ordinal < athlete.getSportsSlots(); ordinal++) {
+            if (athlete.getCompetedGames(ordinal) != 0) {
+                leaderboards.get(ordinal).add(athlete);
+                dirtyLeaderboards.add(ordinal);
+            }
+        }
+    }
+
+    /**
+     * Keeps the athletes of a snapshot, which are only restored once they are
+     * needed.
+     *
+     * @param snapshotAthletes Athletes of a snapshot which haven't been restored
+     *                         yet.
+     */
+    void setSnapshotAthletes(SnapshotAthletes snapshotAthletes) {
+        this.snapshotAthletes = snapshotAthletes;
+    }
+
+    private void clearArchive() {
+        snapshotAthletes = null;
+        competitions.reset();
+        if (competitionStore != null) {
+            competitionStore.truncate(0);
+        }
+        iocRegistry.clear();
+        venueMap.clear();
+        countryVenues.clear();
+        sportsDictionary.clear();
+        athleteStore.clear();
+        leaderboards.clear();
+        medalTableEntries.clear();
+        markAllDirty();
+    }
+
+    private void markAllDirty() {
+        allLeaderboardsDirty = true;
+        allVenuesDirty = true;
+        sportsDirty = true;
+        iocCodesDirty = true;
+        medalTableDirty = true;
+    }
+
+    private Map<String, List<String>> createVenueLines(ReadView previous) {
+        Map<String, List<String>> venueLines = new HashMap<>();
+        // Every country with an IOC code can be listed, even without any venues
+        for (int ordinal = 0; ordinal < iocRegistry.size(); ordinal++) {
+            String countryName = iocRegistry.get(ordinal).getCountryName();
+            if (allVenuesDirty || dirtyVenueCountries.contains(countryName)) {
+                venueLines.put(countryName, createVenueLines(countryName));
+            } else {
+                venueLines.put(countryName, previous.getVenueLines().get(countryName));
+            }
+        }
+        return Collections.unmodifiableMap(venueLines);
+    }
+
+    private List<String> createVenueLines(String countryName) {
+        List<String> lines = new ArrayList<>();
+        CountryVenues venues = countryVenues.get(countryName);
+        if (venues != null) {
+            int placement = 1;
+            for (Venue venue : venues.getVenues()) {
+                lines.add("(" + placement + " " + String.format(THREE_DIGITS, venue.getVenueID()) + " "
+                        + venue.getLocation() + " " + venue.getAmountOfSeats() + ")");
+                placement++;
+            }
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    private List<String> createSportLines() {
+        List<String> lines = new ArrayList<>();
+        for (Sports sport : sportsDictionary.getSortedSports()) {
+            lines.add(sport.getSport() + " " + sport.getDiscipline());
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    private List<String> createIocCodeLines() {
+        List<String> lines = new ArrayList<>();
+        for (IOC ioc : iocRegistry.getSortedIOC()) {
+            lines.add(String.format(FOUR_DIGITS, ioc.getYearOfDetermination()) + " "
+                    + String.format(THREE_DIGITS, ioc.getIocID()) + " " + ioc.getIocCode() + " "
+                    + ioc.getCountryName());
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    private Map<String, ReadView.Leaderboard> createLeaderboards(ReadView previous) {
+        Map<String, ReadView.Leaderboard> created = new HashMap<>();
+        for (int ordinal = 0; ordinal < sportsDictionary.size(); ordinal++) {
+            Sports sport = sportsDictionary.get(ordinal);
+            String key = ReadView.sportKey(sport.getSport(), sport.getDiscipline());
+            if (allLeaderboardsDirty || dirtyLeaderboards.contains(ordinal)) {
+                // Sorting in place keeps the next sort of the leaderboard close to linear
+                List<Athlete> leaderboard = leaderboards.get(ordinal);
+                leaderboard.sort(Athlete.leaderboardOrder(sport));
+                created.put(key, new ReadView.Leaderboard(leaderboard, leaderboard.size(), sport));
+            } else {
+                created.put(key, previous.getLeaderboards().get(key));
+            }
+        }
+        return Collections.unmodifiableMap(created);
+    }
+
+    private List<MedalTableEntry> createMedalTable() {
+        // The view keeps copies, whose totals don't change with later competitions
+        List<MedalTableEntry> medalTable = new ArrayList<>(medalTableEntries.size());
+        for (MedalTableEntry entry : medalTableEntries.values()) {
+            medalTable.add(new MedalTableEntry(entry.getCountry(), entry.getTotalGold(), entry.getTotalSilver(),
+                    entry.getTotalBronze()));
+        }
+        Collections.sort(medalTable);
+        return Collections.unmodifiableList(medalTable);
+    }
+
+    private void storeCompetition(int athleteID, int gamesOrdinal, IOC country, Sports sport, int gold, int silver,
+                                  int bronze) {
+        competitions.increment();
+        if (competitionStore != null) {
+            byte medal = CompetitionStore.NO_MEDAL;
+            if (gold > 0) {
+                medal = CompetitionStore.GOLD;
+            } else if (silver > 0) {
+                medal = CompetitionStore.SILVER;
+            } else if (bronze > 0) {
+                medal = CompetitionStore.BRONZE;
+            }
+            competitionStore.append(athleteID, gamesOrdinal, country.getOrdinal(), sport.getOrdinal(), medal);
+        }
+    }
+
+    private Athlete findAthlete(int athleteID) {
+        Athlete athlete = athleteStore.get(athleteID);
+        if (athlete == null && snapshotAthletes != null) {
+            athlete = snapshotAthletes.load(athleteID);
+            if (athlete != null) {
+                restoreAthlete(athlete);
+            }
+        }
+        return athlete;
+    }
+
+    private void logAthlete(int athleteID, String foreName, String surName, String countryOfOrigin, String sport,
+                            String discipline) {
+        if (writeAheadLog != null) {
+            writeAheadLog.logAthlete(athleteID, foreName, surName, countryOfOrigin, sport, discipline);
+        }
+    }
+
     private <K, V> String addElement(Map<K, V> map, K key, V value, String errorMessage) throws InvalidInputException {
         // Doesn't allow duplicates
         if (map.containsKey(key)) {
@@ -421,19 +1023,35 @@ public class OlympicGames {
 
     private boolean olympicTurnus(IOC country, int year) {
         // No competition can take place before an IOC has been determined
-        boolean afterIOC = Integer.parseInt(country.getYearOfDetermination()) <= year;
+        boolean afterIOC = country.getYearOfDetermination() <= year;
         // Every 4th year after 1926
-        boolean turnus = (((year - OLYMPIC_BEGIN) % 4) == 0);
+        boolean turnus = (((year - OLYMPIC_BEGIN) % OLYMPIC_TURNUS) == 0);
         if (year >= OLYMPIC_BEGIN && year <= CURRENT_OLYMPIC_YEAR && turnus && afterIOC) {
             return true;
         }
         return false;
     }
 
+    /**
+     * Returns the ordinal of the Olympic Games of a year, starting with 0 for the
+     * first Olympic Games. The year has to be a valid year of the Olympic turnus.
+     *
+     * @param year Year of the Olympic Games.
+     * @return Ordinal of the Olympic Games.
+     */
+    public static int gamesOrdinal(int year) {
+        return (year - OLYMPIC_BEGIN) / OLYMPIC_TURNUS;
+    }
+
     private void refreshMedals(Athlete refreshedAthlete, Sports sport, int gold, int silver, int bronze) {
-        refreshedAthlete.setGoldMedal(refreshedAthlete.getGoldMedal() + gold);
-        refreshedAthlete.setSilverMedal(refreshedAthlete.getSilverMedal() + silver);
-        refreshedAthlete.setBronzeMedal(refreshedAthlete.getBronzeMedal() + bronze);
-        refreshedAthlete.setSportsMedal(sport, (refreshedAthlete.getSportsMedals(sport) + (gold + silver + bronze)));
+        // The athlete's own medals have already been added along with the competition
+        if ((gold + silver + bronze) > 0) {
+            // The leaderboard of the sport and the medal table are only sorted once they are published
+            if (!dirtyLeaderboards.contains(sport.getOrdinal())) {
+                dirtyLeaderboards.add(sport.getOrdinal());
+            }
+            medalTableDirty = true;
+            medalTableEntries.get(refreshedAthlete.getCountryOfOrigin()).addMedals(gold, silver, bronze);
+        }
     }
 }
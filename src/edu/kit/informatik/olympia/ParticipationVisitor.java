@@ -0,0 +1,23 @@
+package edu.kit.informatik.olympia;
+
+/**
+ * This interface receives the sports the athletes of a competition archive
+ * participate in, field by field, so that no athlete object is created.
+ *
+ * @author Bjoern Holtvogt
+ */
+@FunctionalInterface
+public interface ParticipationVisitor {
+
+    /**
+     * Receives the participation of an athlete in a sport.
+     *
+     * @param athleteID      Unique athlete ID.
+     * @param countryOrdinal Ordinal of the athlete's country of origin.
+     * @param sportOrdinal   Ordinal of the sport.
+     * @param sportsMedals   Amount of received medals in the sport.
+     * @param competedGames  Bits of the Olympic Games the athlete competed in,
+     *                       indexed by their ordinal.
+     */
+    void visit(int athleteID, int countryOrdinal, int sportOrdinal, int sportsMedals, int competedGames);
+}
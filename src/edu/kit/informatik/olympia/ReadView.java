@@ -0,0 +1,331 @@
+package edu.kit.informatik.olympia;
+
+import edu.kit.informatik.InvalidInputException;
+import edu.kit.informatik.io.Output;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is an immutable view of everything the listings of the Olympic
+ * Games show. A new view is published after a batch of mutations, and listings
+ * only read the latest published view, so that they never wait for mutations and
+ * never see a batch halfway. Sections which haven't changed since the previous
+ * view are shared with it instead of being copied.
+ * <p>
+ * Listings which are short are kept as their finished lines. A leaderboard only
+ * keeps its athletes and their medals in order, since it can be large and is
+ * formatted when it is listed. The medal table keeps its entries, so that the
+ * views of several shards can be merged into a single medal table.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class ReadView {
+
+    private static final String THREE_DIGITS = "%03d";
+    private static final String FOUR_DIGITS = "%04d";
+    private static final char SPORT_KEY_SEPARATOR = ';';
+
+    private final Map<String, List<String>> venueLines;
+    private final List<String> sportLines;
+    private final List<String> iocCodeLines;
+    private final Map<String, Leaderboard> leaderboards;
+    private final List<MedalTableEntry> medalTable;
+    private final boolean restoresLazily;
+
+    /**
+     * Creates a view from its sections.
+     *
+     * @param venueLines      Lines of the venues of every country which has an
+     *                        IOC code.
+     * @param sportLines      Lines of the sports in alphabetic order.
+     * @param iocCodeLines    Lines of the IOC codes in their order.
+     * @param leaderboards    Leaderboards by their key of sport and discipline.
+     * @param medalTable      Entries of the medal table in their order, whose
+     *                        totals don't change anymore.
+     * @param restoresLazily  True, if athletes of a snapshot were still waiting
+     *                        to be restored when the view was created.
+     */
+    ReadView(final Map<String, List<String>> venueLines, final List<String> sportLines,
+             final List<String> iocCodeLines, final Map<String, Leaderboard> leaderboards,
+             final List<MedalTableEntry> medalTable, final boolean restoresLazily) {
+        this.venueLines = venueLines;
+        this.sportLines = sportLines;
+        this.iocCodeLines = iocCodeLines;
+        this.leaderboards = leaderboards;
+        this.medalTable = medalTable;
+        this.restoresLazily = restoresLazily;
+    }
+
+    /**
+     * Returns the key of the leaderboard of a sport tuple.
+     *
+     * @param sport      Name of the sport.
+     * @param discipline Discipline of the sport.
+     * @return Key of the leaderboard.
+     */
+    static String sportKey(final String sport, final String discipline) {
+        // The separator of the arguments can't be part of a name
+        return sport + SPORT_KEY_SEPARATOR + discipline;
+    }
+
+    /**
+     * Returns the lines of the venues of every country which has an IOC code.
+     *
+     * @return Lines of the venues by the name of their country.
+     */
+    Map<String, List<String>> getVenueLines() {
+        return venueLines;
+    }
+
+    /**
+     * Returns the lines of the sports in alphabetic order.
+     *
+     * @return Lines of the sports.
+     */
+    List<String> getSportLines() {
+        return sportLines;
+    }
+
+    /**
+     * Returns the lines of the IOC codes in their order.
+     *
+     * @return Lines of the IOC codes.
+     */
+    List<String> getIocCodeLines() {
+        return iocCodeLines;
+    }
+
+    /**
+     * Returns the leaderboards by their key of sport and discipline.
+     *
+     * @return Leaderboards of all sports.
+     */
+    Map<String, Leaderboard> getLeaderboards() {
+        return leaderboards;
+    }
+
+    /**
+     * Returns the entries of the medal table in their order.
+     *
+     * @return Entries of the medal table.
+     */
+    List<MedalTableEntry> getMedalTable() {
+        return medalTable;
+    }
+
+    /**
+     * Returns whether athletes of a snapshot were still waiting to be restored
+     * when the view was created, in which case its leaderboards are incomplete.
+     *
+     * @return True, if the leaderboards may be incomplete.
+     */
+    boolean restoresLazily() {
+        return restoresLazily;
+    }
+
+    /**
+     * Lists the sports venues of a country.
+     *
+     * @param countryName Country in which the venues are located.
+     * @param output      Sink for the listed venues.
+     * @throws InvalidInputException if the country has no associated IOC code.
+     */
+    void listSportsVenues(final String countryName, final Output output) throws InvalidInputException {
+        List<String> lines = venueLines.get(countryName);
+        if (lines == null) {
+            throw new InvalidInputException("country has no associated IOC code.");
+        }
+        printAll(lines, output);
+    }
+
+    /**
+     * Lists the sports and sports disciplines.
+     *
+     * @param output Sink for the listed sports.
+     */
+    void listOlympicSports(final Output output) {
+        printAll(sportLines, output);
+    }
+
+    /**
+     * Lists the IOC codes.
+     *
+     * @param output Sink for the listed IOC codes.
+     */
+    void listIocCodes(final Output output) {
+        printAll(iocCodeLines, output);
+    }
+
+    /**
+     * Lists the leaderboard of a sport tuple.
+     *
+     * @param sport      Name of the sport.
+     * @param discipline Discipline of the sport.
+     * @param output     Sink for the listed athletes.
+     * @throws InvalidInputException if the sport tuple doesn't exist.
+     */
+    void summaryAthlete(final String sport, final String discipline, final Output output)
+            throws InvalidInputException {
+        Leaderboard leaderboard = leaderboards.get(sportKey(sport, discipline));
+        if (leaderboard == null) {
+            throw new InvalidInputException("not existing sport.");
+        }
+        leaderboard.print(output);
+    }
+
+    /**
+     * Lists the medal table.
+     *
+     * @param output Sink for the lines of the medal table.
+     */
+    void olympicMedalTable(final Output output) {
+        printMedalTable(medalTable, output);
+    }
+
+    /**
+     * Lists the leaderboard of a sport tuple merged from the views of several
+     * shards, which hold distinct athletes but the same sports. A view which has
+     * been published before the sport was added doesn't contribute any athlete.
+     *
+     * @param views      Views of all shards.
+     * @param sport      Name of the sport.
+     * @param discipline Discipline of the sport.
+     * @param output     Sink for the listed athletes.
+     * @throws InvalidInputException if the sport tuple doesn't exist.
+     */
+    static void summaryAthlete(final List<ReadView> views, final String sport, final String discipline,
+                               final Output output) throws InvalidInputException {
+        String key = sportKey(sport, discipline);
+        List<Leaderboard> existing = new ArrayList<>(views.size());
+        for (ReadView view : views) {
+            Leaderboard leaderboard = view.leaderboards.get(key);
+            if (leaderboard != null) {
+                existing.add(leaderboard);
+            }
+        }
+        if (existing.isEmpty()) {
+            throw new InvalidInputException("not existing sport.");
+        }
+        Leaderboard[] leaderboards = existing.toArray(new Leaderboard[0]);
+        // Every leaderboard is already in order, so only their heads are compared
+        int[] positions = new int[leaderboards.length];
+        while (true) {
+            int best = -1;
+            for (int i = 0; i < leaderboards.length; i++) {
+                if (positions[i] < leaderboards[i].athletes.length
+                        && (best < 0 || leaderboards[i].precedes(positions[i], leaderboards[best], positions[best]))) {
+                    best = i;
+                }
+            }
+            if (best < 0) {
+                return;
+            }
+            leaderboards[best].print(positions[best], output);
+            positions[best]++;
+        }
+    }
+
+    /**
+     * Lists the medal table merged from the views of several shards, which hold
+     * the same IOC codes in the same order. The medals of a country are summed up
+     * over all shards. A view which has been published before an IOC code was
+     * added only lacks the codes behind it, so the largest view holds every code.
+     *
+     * @param views  Views of all shards.
+     * @param output Sink for the lines of the medal table.
+     */
+    static void olympicMedalTable(final List<ReadView> views, final Output output) {
+        int countries = 0;
+        for (ReadView view : views) {
+            countries = Math.max(countries, view.medalTable.size());
+        }
+        int[] gold = new int[countries];
+        int[] silver = new int[countries];
+        int[] bronze = new int[countries];
+        IOC[] countryOfOrdinal = new IOC[countries];
+        for (ReadView view : views) {
+            for (MedalTableEntry entry : view.medalTable) {
+                int ordinal = entry.getCountry().getOrdinal();
+                countryOfOrdinal[ordinal] = entry.getCountry();
+                gold[ordinal] += entry.getTotalGold();
+                silver[ordinal] += entry.getTotalSilver();
+                bronze[ordinal] += entry.getTotalBronze();
+            }
+        }
+        List<MedalTableEntry> merged = new ArrayList<>(countries);
+        for (int ordinal = 0; ordinal < countries; ordinal++) {
+            merged.add(new MedalTableEntry(countryOfOrdinal[ordinal], gold[ordinal], silver[ordinal], bronze[ordinal]));
+        }
+        Collections.sort(merged);
+        printMedalTable(merged, output);
+    }
+
+    private static void printMedalTable(final List<MedalTableEntry> medalTable, final Output output) {
+        int placement = 1;
+        for (MedalTableEntry medalTableEntry : medalTable) {
+            output.println("(" + (placement) + "," + String.format(THREE_DIGITS, medalTableEntry.getIocID()) + ","
+                    + medalTableEntry.getIocCode() + ","
+                    + medalTableEntry.getCountryName() + "," + medalTableEntry.getTotalGold() + ","
+                    + medalTableEntry.getTotalSilver() + "," + medalTableEntry.getTotalBronze() + ","
+                    + medalTableEntry.getTotalMedals() + ")");
+            placement++;
+        }
+    }
+
+    private static void printAll(final List<String> lines, final Output output) {
+        for (String line : lines) {
+            output.println(line);
+        }
+    }
+
+    /**
+     * This class keeps the athletes of a leaderboard in their order, together
+     * with the medals they had in the sport when the leaderboard was taken.
+     */
+    static final class Leaderboard {
+
+        private final Athlete[] athletes;
+        private final int[] medals;
+
+        /**
+         * Takes the current order and medals of the athletes of a sport.
+         *
+         * @param ranking Athletes of the sport in the order of the leaderboard.
+         * @param size    Amount of athletes in the ranking.
+         * @param sport   Sport of the leaderboard.
+         */
+        Leaderboard(final Iterable<Athlete> ranking, final int size, final Sports sport) {
+            this.athletes = new Athlete[size];
+            this.medals = new int[size];
+            int i = 0;
+            for (Athlete athlete : ranking) {
+                athletes[i] = athlete;
+                medals[i] = athlete.getSportsMedals(sport);
+                i++;
+            }
+        }
+
+        private void print(final Output output) {
+            for (int i = 0; i < athletes.length; i++) {
+                print(i, output);
+            }
+        }
+
+        private void print(final int position, final Output output) {
+            // The names and the ID of an athlete never change
+            output.println(String.format(FOUR_DIGITS, athletes[position].getAthleteID()) + " "
+                    + athletes[position].getForeName() + " " + athletes[position].getSurName() + " "
+                    + medals[position]);
+        }
+
+        private boolean precedes(final int position, final Leaderboard other, final int otherPosition) {
+            if (medals[position] != other.medals[otherPosition]) {
+                return medals[position] > other.medals[otherPosition];
+            }
+            return athletes[position].getAthleteID() < other.athletes[otherPosition].getAthleteID();
+        }
+    }
+}
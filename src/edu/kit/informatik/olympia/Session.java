@@ -0,0 +1,66 @@
+package edu.kit.informatik.olympia;
+
+/**
+ * This class represents the state of a single source of commands, such as the
+ * interactive console or a connection. It holds the administrator who is
+ * logged in through this session, so that permission checks are a single field
+ * access and independent sessions don't influence each other.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class Session {
+
+    private Administrator administrator;
+    private boolean running;
+
+    /**
+     * Creates a running session without a logged in admin.
+     */
+    public Session() {
+        this.running = true;
+    }
+
+    /**
+     * Checks for an admin who is logged in through this session.
+     *
+     * @return True, if an admin is logged in. False, if not.
+     */
+    public boolean isLoggedIn() {
+        return administrator != null;
+    }
+
+    /**
+     * Returns the admin who is logged in through this session.
+     *
+     * @return Logged in admin or null, if no admin is logged in.
+     */
+    public Administrator getAdministrator() {
+        return administrator;
+    }
+
+    /**
+     * Sets the admin who is logged in through this session.
+     *
+     * @param administrator Logged in admin or null, if the admin logs out.
+     */
+    void setAdministrator(final Administrator administrator) {
+        this.administrator = administrator;
+    }
+
+    /**
+     * Returns the current state of the session.
+     *
+     * @return True, if the session hasn't been quit yet. False, if the user wants
+     * to quit by the command quit.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Ends the session, so that no further commands are read from its source.
+     */
+    public void quit() {
+        this.running = false;
+    }
+}
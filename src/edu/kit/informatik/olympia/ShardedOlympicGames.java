@@ -0,0 +1,305 @@
+package edu.kit.informatik.olympia;
+
+import edu.kit.informatik.InvalidInputException;
+import edu.kit.informatik.io.Output;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class partitions the athletes and their competitions over several
+ * shards. Every shard is an Olympic Games of its own, which is only ever changed
+ * by the single thread of the shard. Commands reach that thread through the
+ * mailbox of the shard, so that no shard needs a lock and all shards apply their
+ * mutations in parallel.
+ * <p>
+ * The IOC codes, venues and sports are replicated to every shard in the same
+ * order, so that their ordinals are the same on all shards. Admins only live in
+ * the first shard, which handles every login. An athlete is owned by the shard of
+ * the country of origin with which its athlete ID has been added first, and every
+ * further command for the athlete is routed to that shard by its athlete ID.
+ * Listings of the replicated data are served by the first shard, while the
+ * leaderboards and the medal table are merged from the read views of all shards.
+ * <p>
+ * Sharded Olympic Games aren't persisted, so they have neither a write-ahead log
+ * nor any snapshot.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class ShardedOlympicGames extends OlympicGames {
+
+    private final Shard[] shards;
+    private final Map<Integer, Shard> owners;
+    // Keeps the replicated mutations in the same order on every shard
+    private final Lock replicationLock;
+
+    /**
+     * Creates Olympic Games which are partitioned over the given amount of
+     * shards, each of which is served by a thread of its own.
+     *
+     * @param shardCount Amount of shards.
+     */
+    public ShardedOlympicGames(final int shardCount) {
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+        this.owners = new ConcurrentHashMap<>();
+        this.replicationLock = new ReentrantLock();
+    }
+
+    /**
+     * Publishes a new read view on every shard, which contains all mutations that
+     * have reached the shard up to now. Every shard publishes behind the same
+     * replicated mutations, so that the views of the shards agree on the IOC codes
+     * and sports.
+     */
+    @Override
+    public void publish() {
+        List<CompletableFuture<Void>> results = new ArrayList<>(shards.length);
+        replicationLock.lock();
+        try {
+            for (Shard shard : shards) {
+                results.add(shard.submit(olympicGames -> {
+                    olympicGames.publish();
+                    return null;
+                }));
+            }
+        } finally {
+            replicationLock.unlock();
+        }
+        for (CompletableFuture<Void> result : results) {
+            result.join();
+        }
+    }
+
+    @Override
+    public boolean confinesMutations() {
+        return true;
+    }
+
+    @Override
+    public String checkpoint() throws InvalidInputException {
+        // Sharded Olympic Games are never persisted
+        throw new InvalidInputException("no snapshot file has been configured.");
+    }
+
+    @Override
+    public String addAdmin(final String forName, final String surName, final String userName,
+                           final String passWord) throws InvalidInputException {
+        return await(shards[0].submit(olympicGames -> olympicGames.addAdmin(forName, surName, userName, passWord)));
+    }
+
+    @Override
+    public String loginAdmin(final Session session, final String userName, final String passWord)
+            throws InvalidInputException {
+        return await(shards[0].submit(olympicGames -> olympicGames.loginAdmin(session, userName, passWord)));
+    }
+
+    @Override
+    public String logoutAdmin(final Session session) throws InvalidInputException {
+        return await(shards[0].submit(olympicGames -> olympicGames.logoutAdmin(session)));
+    }
+
+    @Override
+    public String addSportsVenue(final int venueID, final String countryName, final String location,
+                                 final String venueName, final int yearOfOpening, final int amountOfSeats)
+            throws InvalidInputException {
+        return replicate(olympicGames -> olympicGames.addSportsVenue(venueID, countryName, location, venueName,
+                yearOfOpening, amountOfSeats));
+    }
+
+    @Override
+    public int getVenueCount(final String countryName) {
+        return shards[0].submit(olympicGames -> olympicGames.getVenueCount(countryName)).join();
+    }
+
+    @Override
+    public long getTotalSeats(final String countryName) {
+        return shards[0].submit(olympicGames -> olympicGames.getTotalSeats(countryName)).join();
+    }
+
+    @Override
+    public void listSportsVenues(final String countryName, final Output output) throws InvalidInputException {
+        shards[0].olympicGames.listSportsVenues(countryName, output);
+    }
+
+    @Override
+    public String addOlympicSport(final String sport, final String discipline) throws InvalidInputException {
+        return replicate(olympicGames -> olympicGames.addOlympicSport(sport, discipline));
+    }
+
+    @Override
+    public void listOlympicSports(final Output output) {
+        shards[0].olympicGames.listOlympicSports(output);
+    }
+
+    @Override
+    public String addIocCode(final int iocID, final String iocCode, final String countryName,
+                             final int yearOfDetermination) throws InvalidInputException {
+        return replicate(olympicGames -> olympicGames.addIocCode(iocID, iocCode, countryName, yearOfDetermination));
+    }
+
+    @Override
+    public void listIocCodes(final Output output) {
+        shards[0].olympicGames.listIocCodes(output);
+    }
+
+    @Override
+    public String addAthlete(final int athleteID, final String foreName, final String surName,
+                             final String countryOfOrigin, final String sport, final String discipline)
+            throws InvalidInputException {
+        // The athlete ID keeps its shard even if the athlete can't be added, which only decides its placement
+        Shard owner = owners.computeIfAbsent(athleteID, id -> shardOf(countryOfOrigin));
+        return await(owner.submit(olympicGames -> olympicGames.addAthlete(athleteID, foreName, surName,
+                countryOfOrigin, sport, discipline)));
+    }
+
+    @Override
+    public void summaryAthlete(final String sport, final String discipline, final Output output)
+            throws InvalidInputException {
+        ReadView.summaryAthlete(readViews(), sport, discipline, output);
+    }
+
+    @Override
+    public String addCompetition(final int athleteID, final int participationYear, final String countryOfOrigin,
+                                 final String sport, final String discipline, final int gold, final int silver,
+                                 final int bronze) throws InvalidInputException {
+        // An unknown athlete is rejected by any shard, so it is sent to the shard of the given country
+        Shard owner = owners.get(athleteID);
+        if (owner == null) {
+            owner = shardOf(countryOfOrigin);
+        }
+        return await(owner.submit(olympicGames -> olympicGames.addCompetition(athleteID, participationYear,
+                countryOfOrigin, sport, discipline, gold, silver, bronze)));
+    }
+
+    @Override
+    public void olympicMedalTable(final Output output) {
+        ReadView.olympicMedalTable(readViews(), output);
+    }
+
+    @Override
+    public String reset() {
+        // An athlete ID which is claimed concurrently may keep its shard, which only decides its placement
+        owners.clear();
+        try {
+            return replicate(OlympicGames::reset);
+        } catch (InvalidInputException invalidInputException) {
+            // Resetting can't be rejected
+            throw new IllegalStateException(invalidInputException);
+        }
+    }
+
+    private String replicate(final ShardTask<String> task) throws InvalidInputException {
+        List<CompletableFuture<String>> results = new ArrayList<>(shards.length);
+        replicationLock.lock();
+        try {
+            for (Shard shard : shards) {
+                results.add(shard.submit(task));
+            }
+        } finally {
+            replicationLock.unlock();
+        }
+        // Every shard holds the same replicated data, so all of them give the same response
+        for (int i = 1; i < results.size(); i++) {
+            results.get(i).exceptionally(exception -> null).join();
+        }
+        return await(results.get(0));
+    }
+
+    private Shard shardOf(final String countryName) {
+        return shards[Math.floorMod(countryName.hashCode(), shards.length)];
+    }
+
+    private List<ReadView> readViews() {
+        List<ReadView> readViews = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            readViews.add(shard.olympicGames.getReadView());
+        }
+        return readViews;
+    }
+
+    private static <T> T await(final CompletableFuture<T> result) throws InvalidInputException {
+        try {
+            return result.join();
+        } catch (CompletionException completionException) {
+            if (completionException.getCause() instanceof InvalidInputException) {
+                throw (InvalidInputException) completionException.getCause();
+            }
+            throw completionException;
+        }
+    }
+
+    /**
+     * This interface is a command which is executed on the thread of a shard.
+     *
+     * @param <T> Type of the result of the command.
+     */
+    @FunctionalInterface
+    private interface ShardTask<T> {
+
+        /**
+         * Executes the command on the Olympic Games of a shard.
+         *
+         * @param olympicGames Olympic Games of the shard.
+         * @return Result of the command.
+         * @throws InvalidInputException if the command is rejected by the shard.
+         */
+        T execute(OlympicGames olympicGames) throws InvalidInputException;
+    }
+
+    /**
+     * This class owns the Olympic Games of a shard and the thread which applies
+     * all commands of its mailbox to them, one after another.
+     */
+    private static final class Shard {
+
+        private final OlympicGames olympicGames;
+        private final BlockingQueue<Runnable> mailbox;
+
+        /**
+         * Creates a shard and starts its thread.
+         *
+         * @param index Index of the shard.
+         */
+        Shard(final int index) {
+            this.olympicGames = new OlympicGames();
+            this.mailbox = new LinkedBlockingQueue<>();
+            // The threads of the shards don't keep the program from terminating
+            Thread thread = new Thread(this::run, "shard-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private <T> CompletableFuture<T> submit(final ShardTask<T> task) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            mailbox.add(() -> {
+                try {
+                    result.complete(task.execute(olympicGames));
+                } catch (InvalidInputException | RuntimeException exception) {
+                    result.completeExceptionally(exception);
+                }
+            });
+            return result;
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    mailbox.take().run();
+                }
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
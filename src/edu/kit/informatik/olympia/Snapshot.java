@@ -0,0 +1,264 @@
+package edu.kit.informatik.olympia;
+
+import edu.kit.informatik.io.CountingOutputStream;
+import edu.kit.informatik.io.MappedFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * This class writes the complete state of the Olympic Games to a binary snapshot
+ * file and restores it in a single sequential read. A snapshot starts with a
+ * magic number, the version of its format and the epoch of the write-ahead log
+ * which continues it. It ends with a checksum of everything before, so that a
+ * damaged snapshot is never restored.
+ * <p>
+ * Since version 2, the athletes are written in ascending order of their IDs and
+ * followed by two indexes: the position of every athlete and, for every sport,
+ * the athletes participating in it. The positions of both indexes precede the
+ * checksum, so that a snapshot can also be restored lazily from a mapping.
+ * Since version 3, the IOC codes are written in the order of their ordinals and
+ * the amount of accepted competitions is part of the state.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class Snapshot {
+
+    private static final int MAGIC = 0x4F47534E;
+    /**
+     * First version of the format which contains the amount of competitions.
+     */
+    static final int FIRST_COUNTING_VERSION = 3;
+
+    private static final int VERSION = 3;
+    private static final int FIRST_INDEXED_VERSION = 2;
+    private static final int ATHLETE_INDEX_ENTRY_SIZE = Integer.BYTES + Long.BYTES;
+    private static final int TRAILER_SIZE = 2 * Long.BYTES + Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * Private constructor to avoid object generation.
+     *
+     * @deprecated Utility-class constructor.
+     */
+    @Deprecated
+    private Snapshot() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Writes the state of the Olympic Games to a snapshot file. The snapshot is
+     * written to a temporary file first, which replaces the snapshot file only
+     * after it has been forced to the storage device completely.
+     *
+     * @param path         Path of the snapshot file.
+     * @param olympicGames Olympic Games whose state is written.
+     * @param logEpoch     Epoch of the write-ahead log which continues the
+     *                     snapshot.
+     * @throws IOException if the snapshot file can't be written.
+     */
+    static void write(final Path path, final OlympicGames olympicGames, final long logEpoch) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + TEMPORARY_SUFFIX);
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, BUFFER_SIZE),
+                    new CRC32());
+            CountingOutputStream counting = new CountingOutputStream(checked);
+            DataOutputStream output = new DataOutputStream(counting);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(logEpoch);
+            olympicGames.writeReferenceData(output);
+            Athlete[] athletes = olympicGames.getSortedAthletes();
+            long[] positions = new long[athletes.length];
+            output.writeInt(athletes.length);
+            for (int i = 0; i < athletes.length; i++) {
+                positions[i] = counting.getCount();
+                OlympicGames.writeAthlete(output, athletes[i]);
+            }
+            long athleteIndex = counting.getCount();
+            for (int i = 0; i < athletes.length; i++) {
+                output.writeInt(athletes[i].getAthleteID());
+                output.writeLong(positions[i]);
+            }
+            long participantIndex = counting.getCount();
+            writeParticipants(output, athletes, olympicGames.getSportsCount());
+            output.writeLong(athleteIndex);
+            output.writeLong(participantIndex);
+            output.writeInt((int) checked.getChecksum().getValue());
+            output.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // The renaming has to be durable before the write-ahead log may start over
+        Path directory = path.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Restores the state of the Olympic Games from a snapshot file, replacing
+     * their whole previous state.
+     *
+     * @param path         Path of the snapshot file.
+     * @param olympicGames Olympic Games whose state is restored.
+     * @return Epoch of the write-ahead log which continues the snapshot.
+     * @throws IOException if the snapshot file can't be read, has an unknown
+     *                     format or is damaged.
+     */
+    static long read(final Path path, final OlympicGames olympicGames) throws IOException {
+        try (InputStream file = Files.newInputStream(path)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(file, BUFFER_SIZE),
+                    new CRC32());
+            DataInputStream input = new DataInputStream(checked);
+            if (input.readInt() != MAGIC) {
+                throw new IOException(path + " isn't a snapshot.");
+            }
+            int version = input.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("snapshot version " + version + " isn't supported.");
+            }
+            long logEpoch = input.readLong();
+            try {
+                olympicGames.readReferenceData(input, version);
+                int athletes = input.readInt();
+                for (int i = 0; i < athletes; i++) {
+                    olympicGames.restoreAthlete(olympicGames.readAthlete(input));
+                }
+                if (version >= FIRST_INDEXED_VERSION) {
+                    // The indexes are only needed for lazy restoring, but are covered by the checksum
+                    input.skipNBytes((long) athletes * ATHLETE_INDEX_ENTRY_SIZE);
+                    for (int ordinal = 0; ordinal < olympicGames.getSportsCount(); ordinal++) {
+                        input.skipNBytes((long) input.readInt() * Integer.BYTES);
+                    }
+                    input.skipNBytes(2 * Long.BYTES);
+                }
+            } catch (EOFException | RuntimeException exception) {
+                // Damaged content can break the state before the checksum is reached
+                throw new IOException("snapshot " + path + " is damaged.", exception);
+            }
+            int expectedChecksum = (int) checked.getChecksum().getValue();
+            if (input.readInt() != expectedChecksum || input.read() >= 0) {
+                throw new IOException("snapshot " + path + " is damaged.");
+            }
+            return logEpoch;
+        }
+    }
+
+    /**
+     * Restores the admins, IOC codes, venues and sports of the Olympic Games from
+     * a snapshot file right away, but leaves the athletes in a mapping of the
+     * file until they are needed. Only the header and the reference data are
+     * read, so the checksum isn't verified. Snapshots without indexes are restored
+     * completely instead.
+     *
+     * @param path         Path of the snapshot file.
+     * @param olympicGames Olympic Games whose state is restored.
+     * @return Epoch of the write-ahead log which continues the snapshot.
+     * @throws IOException if the snapshot file can't be read or has an unknown
+     *                     format.
+     */
+    static long readLazily(final Path path, final OlympicGames olympicGames) throws IOException {
+        MappedFile file = new MappedFile(path);
+        DataInputStream input = new DataInputStream(file.openStream(0));
+        if (input.readInt() != MAGIC) {
+            throw new IOException(path + " isn't a snapshot.");
+        }
+        int version = input.readInt();
+        if (version < FIRST_INDEXED_VERSION) {
+            return read(path, olympicGames);
+        }
+        if (version > VERSION) {
+            throw new IOException("snapshot version " + version + " isn't supported.");
+        }
+        long logEpoch = input.readLong();
+        olympicGames.readReferenceData(input, version);
+        long trailer = file.size() - TRAILER_SIZE;
+        long athleteIndex = file.getLong(trailer);
+        long participantIndex = file.getLong(trailer + Long.BYTES);
+        int athletes = (int) ((participantIndex - athleteIndex) / ATHLETE_INDEX_ENTRY_SIZE);
+        olympicGames.setSnapshotAthletes(new SnapshotAthletes(file, olympicGames, athletes, athleteIndex,
+                participantIndex));
+        return logEpoch;
+    }
+
+    /**
+     * Writes a text as its length followed by its UTF-8 encoding.
+     *
+     * @param output Destination of the text.
+     * @param text   Text which is going to be written.
+     * @throws IOException if the text can't be written.
+     */
+    static void writeString(final DataOutput output, final String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a text which has been written by {@link #writeString}.
+     *
+     * @param input Source of the text.
+     * @return The read text.
+     * @throws IOException if the text can't be read.
+     */
+    static String readString(final DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("text of negative length in snapshot.");
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeParticipants(final DataOutput output, final Athlete[] athletes, final int sports)
+            throws IOException {
+
+        int[] participants = new int[sports];
+        for (Athlete athlete : athletes) {
+            for (int ordinal = 0; ordinal < athlete.getSportsSlots(); ordinal++) {
+                if (athlete.getCompetedGames(ordinal) != 0) {
+                    participants[ordinal]++;
+                }
+            }
+        }
+        int[][] participantsBySport = new int[sports][];
+        for (int ordinal = 0; ordinal < sports; ordinal++) {
+            participantsBySport[ordinal] = new int[participants[ordinal]];
+            participants[ordinal] = 0;
+        }
+        for (int i = 0; i < athletes.length; i++) {
+            for (int ordinal = 0; ordinal < athletes[i].getSportsSlots(); ordinal++) {
+                if (athletes[i].getCompetedGames(ordinal) != 0) {
+                    participantsBySport[ordinal][participants[ordinal]++] = i;
+                }
+            }
+        }
+        // Every participant is referred to by its position in the athlete index
+        for (int[] sportParticipants : participantsBySport) {
+            output.writeInt(sportParticipants.length);
+            for (int participant : sportParticipants) {
+                output.writeInt(participant);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package edu.kit.informatik.olympia;
+
+import edu.kit.informatik.io.MappedFile;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * This class holds the athletes of a mapped snapshot which haven't been restored
+ * yet. An athlete is looked up by a binary search over the athlete index of the
+ * snapshot and only decoded once it is needed. Every athlete is handed out at
+ * most once, since it belongs to the Olympic Games afterwards.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class SnapshotAthletes {
+
+    private static final int ATHLETE_INDEX_ENTRY_SIZE = Integer.BYTES + Long.BYTES;
+
+    private final MappedFile file;
+    private final OlympicGames olympicGames;
+    private final int athletes;
+    private final long athleteIndex;
+    private final long[] participantPositions;
+    private final BitSet restoredAthletes;
+    private final BitSet restoredSports;
+
+    /**
+     * Creates the athletes of a mapped snapshot, of which none has been restored
+     * yet.
+     *
+     * @param file             Mapping of the snapshot.
+     * @param olympicGames     Olympic Games, whose IOC codes and sports have
+     *                         already been restored from the snapshot.
+     * @param athletes         Amount of athletes in the snapshot.
+     * @param athleteIndex     Position of the athlete index.
+     * @param participantIndex Position of the participant index.
+     */
+    SnapshotAthletes(final MappedFile file, final OlympicGames olympicGames, final int athletes,
+                     final long athleteIndex, final long participantIndex) {
+        this.file = file;
+        this.olympicGames = olympicGames;
+        this.athletes = athletes;
+        this.athleteIndex = athleteIndex;
+        this.participantPositions = new long[olympicGames.getSportsCount()];
+        this.restoredAthletes = new BitSet(athletes);
+        this.restoredSports = new BitSet(participantPositions.length);
+        long position = participantIndex;
+        for (int ordinal = 0; ordinal < participantPositions.length; ordinal++) {
+            participantPositions[ordinal] = position;
+            position += Integer.BYTES + (long) file.getInt(position) * Integer.BYTES;
+        }
+    }
+
+    /**
+     * Decodes the athlete with the given ID, unless it has been handed out before.
+     *
+     * @param athleteID Unique athlete ID.
+     * @return The decoded athlete or null, if the snapshot doesn't contain such an
+     * athlete or it has been handed out before.
+     */
+    Athlete load(final int athleteID) {
+        int low = 0;
+        int high = athletes - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleID = file.getInt(athleteIndex + (long) middle * ATHLETE_INDEX_ENTRY_SIZE);
+            if (middleID < athleteID) {
+                low = middle + 1;
+            } else if (middleID > athleteID) {
+                high = middle - 1;
+            } else {
+                return restoredAthletes.get(middle) ? null : decode(middle);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes all athletes participating in a sport which haven't been handed out
+     * before.
+     *
+     * @param ordinal Ordinal of the sport.
+     * @param action  Action which receives every decoded athlete.
+     */
+    void loadSport(final int ordinal, final Consumer<Athlete> action) {
+        // Sports which have been added after the snapshot don't have any athletes in it
+        if (ordinal >= participantPositions.length || restoredSports.get(ordinal)) {
+            return;
+        }
+        long position = participantPositions[ordinal];
+        int participants = file.getInt(position);
+        for (int i = 0; i < participants; i++) {
+            int athlete = file.getInt(position + Integer.BYTES + (long) i * Integer.BYTES);
+            if (!restoredAthletes.get(athlete)) {
+                action.accept(decode(athlete));
+            }
+        }
+        restoredSports.set(ordinal);
+    }
+
+    /**
+     * Decodes all athletes which haven't been handed out before.
+     *
+     * @param action Action which receives every decoded athlete.
+     */
+    void loadAll(final Consumer<Athlete> action) {
+        for (int athlete = restoredAthletes.nextClearBit(0); athlete < athletes;
+             athlete = restoredAthletes.nextClearBit(athlete + 1)) {
+            action.accept(decode(athlete));
+        }
+    }
+
+    private Athlete decode(final int athlete) {
+        restoredAthletes.set(athlete);
+        long position = file.getLong(athleteIndex + (long) athlete * ATHLETE_INDEX_ENTRY_SIZE + Integer.BYTES);
+        try {
+            return olympicGames.readAthlete(new DataInputStream(file.openStream(position)));
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+}
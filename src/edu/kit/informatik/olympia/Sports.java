@@ -7,6 +7,8 @@ package edu.kit.informatik.olympia;
  */
 public class Sports implements Comparable<Sports> {
 
+    private final int ordinal;
+
     private String sport;
     private String discipline;
 
@@ -16,10 +18,22 @@ public class Sports implements Comparable<Sports> {
      *
      * @param sport      Name of the sport.
      * @param discipline Discipline of the sport.
+     * @param ordinal    Dense ordinal of the sport tuple, which is assigned by the
+     *                   sports dictionary.
      */
-    public Sports(final String sport, final String discipline) {
+    public Sports(final String sport, final String discipline, final int ordinal) {
         this.sport = sport;
         this.discipline = discipline;
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Returns the dense ordinal of the sport tuple.
+     *
+     * @return Ordinal of the sport tuple.
+     */
+    public int getOrdinal() {
+        return ordinal;
     }
 
     /**
@@ -0,0 +1,102 @@
+package edu.kit.informatik.olympia;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * This class registers every sport tuple exactly once and hands out a dense
+ * ordinal for it, starting at 0. Registered sport tuples can be looked up by
+ * their names without creating a new sport tuple.
+ *
+ * @author Bjoern Holtvogt
+ */
+public class SportsDictionary {
+
+    private final Map<String, Map<String, Sports>> sportsByName;
+    private final List<Sports> sportsByOrdinal;
+    private final Set<Sports> sortedSports;
+
+    /**
+     * Creates an empty sports dictionary.
+     */
+    public SportsDictionary() {
+        this.sportsByName = new HashMap<>();
+        this.sportsByOrdinal = new ArrayList<>();
+        this.sortedSports = new TreeSet<>();
+    }
+
+    /**
+     * Registers a new sport tuple and assigns the next free ordinal to it.
+     *
+     * @param sport      Name of the sport.
+     * @param discipline Discipline of the sport.
+     * @return The registered sport tuple or null, if the sport tuple has already
+     * been registered.
+     */
+    public Sports register(final String sport, final String discipline) {
+        Map<String, Sports> disciplines = sportsByName.computeIfAbsent(sport, name -> new HashMap<>());
+        if (disciplines.containsKey(discipline)) {
+            return null;
+        }
+        Sports newSport = new Sports(sport, discipline, sportsByOrdinal.size());
+        disciplines.put(discipline, newSport);
+        sportsByOrdinal.add(newSport);
+        sortedSports.add(newSport);
+        return newSport;
+    }
+
+    /**
+     * Returns the registered sport tuple with the given names.
+     *
+     * @param sport      Name of the sport.
+     * @param discipline Discipline of the sport.
+     * @return The registered sport tuple or null, if no such sport tuple exists.
+     */
+    public Sports lookup(final String sport, final String discipline) {
+        Map<String, Sports> disciplines = sportsByName.get(sport);
+        return (disciplines == null) ? null : disciplines.get(discipline);
+    }
+
+    /**
+     * Returns the registered sport tuple with the given ordinal.
+     *
+     * @param ordinal Ordinal of the sport tuple.
+     * @return The registered sport tuple.
+     */
+    public Sports get(final int ordinal) {
+        return sportsByOrdinal.get(ordinal);
+    }
+
+    /**
+     * Returns the amount of registered sport tuples, which is also the next free
+     * ordinal.
+     *
+     * @return Amount of registered sport tuples.
+     */
+    public int size() {
+        return sportsByOrdinal.size();
+    }
+
+    /**
+     * Returns all registered sport tuples in alphabetic order.
+     *
+     * @return Unmodifiable view of the sorted sport tuples.
+     */
+    public Set<Sports> getSortedSports() {
+        return Collections.unmodifiableSet(sortedSports);
+    }
+
+    /**
+     * Removes all registered sport tuples, so that ordinals start at 0 again.
+     */
+    public void clear() {
+        sportsByName.clear();
+        sportsByOrdinal.clear();
+        sortedSports.clear();
+    }
+}
@@ -9,11 +9,13 @@ public class Venue implements Comparable<Venue> {
 
     private final IOC country;
 
-    private String venueID;
+    private int venueID;
     private String location;
     private String venueName;
     private int yearOfOpening;
     private int amountOfSeats;
+    // Amount of seats in the upper and venue ID in the lower half
+    private long sortKey;
 
     /**
      * Creates a new sports venue to the system, which can be used as a venue for
@@ -27,7 +29,7 @@ public class Venue implements Comparable<Venue> {
      * @param yearOfOpening Opening year of the sports venue.
      * @param amountOfSeats Amount of seats of a venue.
      */
-    public Venue(final String venueID, final IOC country, final String location, final String venueName,
+    public Venue(final int venueID, final IOC country, final String location, final String venueName,
                  final int yearOfOpening, final int amountOfSeats) {
 
         this.venueID = venueID;
@@ -36,6 +38,7 @@ public class Venue implements Comparable<Venue> {
         this.venueName = venueName;
         this.yearOfOpening = yearOfOpening;
         this.amountOfSeats = amountOfSeats;
+        updateSortKey();
     }
 
     /**
@@ -43,7 +46,7 @@ public class Venue implements Comparable<Venue> {
      *
      * @return Venue ID.
      */
-    public String getVenueID() {
+    public int getVenueID() {
         return venueID;
     }
 
@@ -52,8 +55,9 @@ public class Venue implements Comparable<Venue> {
      *
      * @param venueID Unique venue ID.
      */
-    public void setVenueID(final String venueID) {
+    public void setVenueID(final int venueID) {
         this.venueID = venueID;
+        updateSortKey();
     }
 
     /**
@@ -135,30 +139,23 @@ public class Venue implements Comparable<Venue> {
      */
     public void setAmountOfSeats(final int amountOfSeats) {
         this.amountOfSeats = amountOfSeats;
+        updateSortKey();
     }
 
     @Override
     public int compareTo(final Venue venue) {
-        if (this.getAmountOfSeats() > venue.getAmountOfSeats()) {
-            return 1;
-        } else if (this.getAmountOfSeats() < venue.getAmountOfSeats()) {
-            return -1;
-        } else {
-            if (Integer.parseInt(this.getVenueID()) > Integer.parseInt(venue.getVenueID())) {
-                return 1;
-            } else if (Integer.parseInt(this.getVenueID()) < Integer.parseInt(venue.getVenueID())) {
-                return -1;
-            } else {
-                return 0;
-            }
-        }
+        return Long.compare(this.sortKey, venue.sortKey);
+    }
+
+    private void updateSortKey() {
+        this.sortKey = ((long) amountOfSeats << Integer.SIZE) | venueID;
     }
 
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((venueID == null) ? 0 : venueID.hashCode());
+        result = prime * result + venueID;
         return result;
     }
 
@@ -171,12 +168,7 @@ public class Venue implements Comparable<Venue> {
         if (getClass() != obj.getClass())
             return false;
         Venue other = (Venue) obj;
-        if (venueID == null) {
-            if (other.venueID != null)
-                return false;
-        } else if (!venueID.equals(other.venueID))
-            return false;
-        return true;
+        return venueID == other.venueID;
     }
 
 }
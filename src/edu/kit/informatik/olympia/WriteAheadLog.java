@@ -0,0 +1,483 @@
+package edu.kit.informatik.olympia;
+
+import edu.kit.informatik.InvalidInputException;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * This class appends every successful mutation of the Olympic Games to a log
+ * file, so that the state can be rebuilt by replaying the log on startup. Each
+ * record consists of its length, a compact binary payload and a checksum of the
+ * payload. A record which has been torn by a crash fails its checksum and is cut
+ * off, together with everything behind it.
+ * <p>
+ * The log starts with a header holding its epoch. A snapshot contains every
+ * record of the logs before its epoch, so a log whose epoch is older than the
+ * one of the snapshot is discarded instead of being replayed.
+ * <p>
+ * Records are collected in a buffer. Flushing the log is the commit point, at
+ * which the buffered records are written and, depending on the fsync policy,
+ * forced to the storage device. Responses are meant to be passed on only after
+ * this commit, so that a whole group of records shares a single fsync. Records
+ * may be logged and committed by several threads at once.
+ * <p>
+ * Once a record couldn't be written or forced, it is unknown which records have
+ * reached the storage device, so every further record and commit fails as well.
+ *
+ * @author Bjoern Holtvogt
+ */
+public final class WriteAheadLog implements Flushable, Closeable {
+
+    private static final int MAGIC = 0x4F47574C;
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    private static final byte IOC_CODE = 1;
+    private static final byte SPORTS_VENUE = 2;
+    private static final byte OLYMPIC_SPORT = 3;
+    private static final byte ATHLETE = 4;
+    private static final byte COMPETITION = 5;
+    private static final byte RESET = 6;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int INITIAL_RECORD_CAPACITY = 256;
+    private static final int FRAME_SIZE = 2 * Integer.BYTES;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION = 0x80;
+    private static final int GOLD_BIT = 4;
+    private static final int SILVER_BIT = 2;
+    private static final int BRONZE_BIT = 1;
+
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final CRC32 checksum;
+
+    private ByteBuffer buffer;
+    private ByteBuffer record;
+    private boolean unforced;
+    private long epoch;
+    private IOException failure;
+
+    private WriteAheadLog(final FileChannel channel, final FsyncPolicy fsyncPolicy) {
+        this.channel = channel;
+        this.fsyncPolicy = fsyncPolicy;
+        this.checksum = new CRC32();
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.record = ByteBuffer.allocate(INITIAL_RECORD_CAPACITY);
+    }
+
+    /**
+     * Opens a log file, replays all of its complete records on the given Olympic
+     * Games and prepares the log for appending further records. A torn record at
+     * the end of the file is cut off. If the log is older than the snapshot the
+     * Olympic Games have been restored from, it starts over instead. The log has
+     * to be attached to the Olympic Games only after it has been opened, so that
+     * the replayed records aren't logged once more.
+     *
+     * @param path         Path of the log file, which is created if it doesn't
+     *                     exist yet.
+     * @param fsyncPolicy  Policy which decides when records are forced to the
+     *                     storage device.
+     * @param olympicGames Olympic Games on which the records are replayed.
+     * @return The opened log.
+     * @throws IOException if the log file can't be read or written, or if a
+     *                     record can't be replayed.
+     */
+    public static WriteAheadLog open(final Path path, final FsyncPolicy fsyncPolicy, final OlympicGames olympicGames)
+            throws IOException {
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            WriteAheadLog writeAheadLog = new WriteAheadLog(channel, fsyncPolicy);
+            long snapshotEpoch = olympicGames.getLogEpoch();
+            long logEpoch = readEpoch(channel);
+            if (logEpoch == snapshotEpoch) {
+                long validLength = replay(channel, olympicGames);
+                channel.truncate(validLength);
+                channel.position(validLength);
+                writeAheadLog.epoch = logEpoch;
+            } else if (logEpoch > snapshotEpoch) {
+                throw new IOException("write-ahead log " + path + " doesn't continue the snapshot.");
+            } else {
+                // All records of an older log are already contained in the snapshot
+                writeAheadLog.restart(snapshotEpoch);
+            }
+            return writeAheadLog;
+        } catch (IOException ioException) {
+            channel.close();
+            throw ioException;
+        }
+    }
+
+    /**
+     * Returns the epoch of the log.
+     *
+     * @return Epoch of the log.
+     */
+    long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Discards all records and starts the log over with a new epoch. This is only
+     * allowed once a snapshot contains all of the discarded records.
+     *
+     * @param newEpoch New epoch of the log.
+     * @throws IOException if the log can't be started over.
+     */
+    synchronized void restart(final long newEpoch) throws IOException {
+        buffer.clear();
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putLong(newEpoch).flip();
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        unforced = true;
+        epoch = newEpoch;
+        flush();
+    }
+
+    /**
+     * Logs that an IOC code has been added.
+     *
+     * @param iocID               Unique IOC ID.
+     * @param iocCode             Unique IOC code.
+     * @param countryName         Unique country name.
+     * @param yearOfDetermination Year of determination of the IOC code.
+     */
+    synchronized void logIocCode(final int iocID, final String iocCode, final String countryName,
+                                 final int yearOfDetermination) {
+        begin(IOC_CODE);
+        putVarint(iocID);
+        putString(iocCode);
+        putString(countryName);
+        putVarint(yearOfDetermination);
+        end();
+    }
+
+    /**
+     * Logs that a sports venue has been added.
+     *
+     * @param venueID       Unique venue ID.
+     * @param countryName   Country in which the venue is located.
+     * @param location      Location of the venue.
+     * @param venueName     Name of the venue.
+     * @param yearOfOpening Year of opening of the venue.
+     * @param amountOfSeats Amount of seats of the venue.
+     */
+    synchronized void logSportsVenue(final int venueID, final String countryName, final String location,
+                                     final String venueName, final int yearOfOpening, final int amountOfSeats) {
+        begin(SPORTS_VENUE);
+        putVarint(venueID);
+        putString(countryName);
+        putString(location);
+        putString(venueName);
+        putVarint(yearOfOpening);
+        putVarint(amountOfSeats);
+        end();
+    }
+
+    /**
+     * Logs that a sport tuple has been added.
+     *
+     * @param sport      Name of the sport.
+     * @param discipline Discipline of the sport.
+     */
+    synchronized void logOlympicSport(final String sport, final String discipline) {
+        begin(OLYMPIC_SPORT);
+        putString(sport);
+        putString(discipline);
+        end();
+    }
+
+    /**
+     * Logs that an athlete has been added to a sport tuple.
+     *
+     * @param athleteID       Unique athlete ID.
+     * @param foreName        Forename of the athlete.
+     * @param surName         Surname of the athlete.
+     * @param countryOfOrigin Athlete's country of origin.
+     * @param sport           Name of the sport.
+     * @param discipline      Discipline of the sport.
+     */
+    synchronized void logAthlete(final int athleteID, final String foreName, final String surName,
+                                 final String countryOfOrigin, final String sport, final String discipline) {
+        begin(ATHLETE);
+        putVarint(athleteID);
+        putString(foreName);
+        putString(surName);
+        putString(countryOfOrigin);
+        putString(sport);
+        putString(discipline);
+        end();
+    }
+
+    /**
+     * Logs that the result of a competition has been added.
+     *
+     * @param athleteID         Unique athlete ID.
+     * @param participationYear Year of the competition.
+     * @param countryOfOrigin   Athlete's country of origin.
+     * @param sport             Name of the sport.
+     * @param discipline        Discipline of the sport.
+     * @param gold              Amount of won gold medals.
+     * @param silver            Amount of won silver medals.
+     * @param bronze            Amount of won bronze medals.
+     */
+    synchronized void logCompetition(final int athleteID, final int participationYear,
+                                     final String countryOfOrigin, final String sport, final String discipline,
+                                     final int gold, final int silver, final int bronze) {
+        begin(COMPETITION);
+        putVarint(athleteID);
+        putVarint(participationYear);
+        putString(countryOfOrigin);
+        putString(sport);
+        putString(discipline);
+        // Every kind of medal is either 0 or 1, so all of them fit into one byte
+        record.put((byte) (gold * GOLD_BIT + silver * SILVER_BIT + bronze * BRONZE_BIT));
+        end();
+    }
+
+    /**
+     * Logs that the Olympic Games have been reset.
+     */
+    synchronized void logReset() {
+        begin(RESET);
+        end();
+    }
+
+    /**
+     * Commits all records which have been logged so far. They are written to the
+     * log file and forced to the storage device, unless the fsync policy is
+     * {@link FsyncPolicy#NEVER}.
+     *
+     * @throws IOException if the records can't be written or forced.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        if (failure != null) {
+            throw failedBefore();
+        }
+        try {
+            writeBuffer();
+            if (unforced && fsyncPolicy != FsyncPolicy.NEVER) {
+                channel.force(false);
+            }
+        } catch (IOException ioException) {
+            failure = ioException;
+            throw ioException;
+        }
+        unforced = false;
+    }
+
+    /**
+     * Commits all remaining records and closes the log file.
+     *
+     * @throws IOException if the records can't be written or the file can't be
+     *                     closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void begin(final byte type) {
+        record.clear();
+        record.put(type);
+    }
+
+    private void end() {
+        if (failure != null) {
+            throw new UncheckedIOException(failedBefore());
+        }
+        record.flip();
+        checksum.reset();
+        checksum.update(record.array(), 0, record.limit());
+        int frameLength = record.limit() + FRAME_SIZE;
+        try {
+            if (buffer.remaining() < frameLength) {
+                writeBuffer();
+                if (buffer.capacity() < frameLength) {
+                    buffer = ByteBuffer.allocate(frameLength);
+                }
+            }
+            buffer.putInt(record.limit());
+            buffer.put(record);
+            buffer.putInt((int) checksum.getValue());
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                flush();
+            }
+        } catch (IOException ioException) {
+            failure = ioException;
+            throw new UncheckedIOException(ioException);
+        }
+    }
+
+    private IOException failedBefore() {
+        return new IOException("log has failed before: " + failure.getMessage(), failure);
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+            unforced = true;
+        }
+        buffer.clear();
+    }
+
+    private void putVarint(final int value) {
+        ensureRecordCapacity(Integer.BYTES + 1);
+        int remaining = value;
+        while ((remaining & ~VARINT_PAYLOAD_MASK) != 0) {
+            record.put((byte) ((remaining & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION));
+            remaining >>>= VARINT_PAYLOAD_BITS;
+        }
+        record.put((byte) remaining);
+    }
+
+    private void putString(final String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length);
+        ensureRecordCapacity(bytes.length);
+        record.put(bytes);
+    }
+
+    private void ensureRecordCapacity(final int length) {
+        if (record.remaining() < length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + length));
+            record.flip();
+            larger.put(record);
+            record = larger;
+        }
+    }
+
+    private static long readEpoch(final FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                // A log without a complete header doesn't contain any records
+                return -1;
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("file isn't a write-ahead log.");
+        }
+        return header.getLong();
+    }
+
+    private static long replay(final FileChannel channel, final OlympicGames olympicGames) throws IOException {
+        channel.position(HEADER_SIZE);
+        // The stream isn't closed, because it would close the channel as well
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel),
+                BUFFER_SIZE));
+        CRC32 replayChecksum = new CRC32();
+        long size = channel.size();
+        long validLength = HEADER_SIZE;
+        byte[] payload = new byte[INITIAL_RECORD_CAPACITY];
+        try {
+            while (validLength + FRAME_SIZE <= size) {
+                int length = input.readInt();
+                if (length <= 0 || validLength + FRAME_SIZE + length > size) {
+                    break;
+                }
+                if (payload.length < length) {
+                    payload = new byte[Math.max(payload.length * 2, length)];
+                }
+                input.readFully(payload, 0, length);
+                replayChecksum.reset();
+                replayChecksum.update(payload, 0, length);
+                if (input.readInt() != (int) replayChecksum.getValue()) {
+                    break;
+                }
+                apply(ByteBuffer.wrap(payload, 0, length), olympicGames);
+                validLength += FRAME_SIZE + length;
+            }
+        } catch (EOFException eofException) {
+            // The last record has been torn and is cut off
+        }
+        return validLength;
+    }
+
+    private static void apply(final ByteBuffer payload, final OlympicGames olympicGames) throws IOException {
+        byte type = payload.get();
+        try {
+            switch (type) {
+                case IOC_CODE:
+                    olympicGames.addIocCode(getVarint(payload), getString(payload), getString(payload),
+                            getVarint(payload));
+                    break;
+                case SPORTS_VENUE:
+                    olympicGames.addSportsVenue(getVarint(payload), getString(payload), getString(payload),
+                            getString(payload), getVarint(payload), getVarint(payload));
+                    break;
+                case OLYMPIC_SPORT:
+                    olympicGames.addOlympicSport(getString(payload), getString(payload));
+                    break;
+                case ATHLETE:
+                    olympicGames.addAthlete(getVarint(payload), getString(payload), getString(payload),
+                            getString(payload), getString(payload), getString(payload));
+                    break;
+                case COMPETITION:
+                    int athleteID = getVarint(payload);
+                    int participationYear = getVarint(payload);
+                    String countryOfOrigin = getString(payload);
+                    String sport = getString(payload);
+                    String discipline = getString(payload);
+                    int medals = payload.get();
+                    olympicGames.addCompetition(athleteID, participationYear, countryOfOrigin, sport, discipline,
+                            (medals & GOLD_BIT) != 0 ? 1 : 0, (medals & SILVER_BIT) != 0 ? 1 : 0,
+                            (medals & BRONZE_BIT) != 0 ? 1 : 0);
+                    break;
+                case RESET:
+                    olympicGames.reset();
+                    break;
+                default:
+                    throw new IOException("unknown record type " + type + " in write-ahead log.");
+            }
+        } catch (InvalidInputException invalidInputException) {
+            throw new IOException("record of write-ahead log can't be replayed: "
+                    + invalidInputException.getMessage(), invalidInputException);
+        }
+    }
+
+    private static int getVarint(final ByteBuffer payload) {
+        int value = 0;
+        int shift = 0;
+        byte part;
+        do {
+            part = payload.get();
+            value |= (part & VARINT_PAYLOAD_MASK) << shift;
+            shift += VARINT_PAYLOAD_BITS;
+        } while ((part & VARINT_CONTINUATION) != 0);
+        return value;
+    }
+
+    private static String getString(final ByteBuffer payload) {
+        int length = getVarint(payload);
+        String text = new String(payload.array(), payload.position(), length, StandardCharsets.UTF_8);
+        payload.position(payload.position() + length);
+        return text;
+    }
+}